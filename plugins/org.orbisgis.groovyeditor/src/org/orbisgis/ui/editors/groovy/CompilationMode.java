@@ -0,0 +1,95 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import groovy.transform.CompileStatic;
+import groovy.transform.TypeChecked;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+
+import java.util.Locale;
+
+/**
+ * Compilation mode of a script. Statically compiled scripts avoid the dynamic dispatch of the method calls, which
+ * makes the numeric loops much faster, but all the types must be known at compilation.
+ *
+ * A script can choose its mode with a directive, which overrides the mode of the editor :
+ * <pre>
+ * // @compile static
+ * </pre>
+ */
+public enum CompilationMode {
+
+    /**
+     * Usual groovy compilation with dynamic dispatch.
+     */
+    DYNAMIC,
+    /**
+     * Dynamic dispatch with a type checking at compilation.
+     */
+    TYPE_CHECKED,
+    /**
+     * Static compilation.
+     */
+    STATIC;
+
+    /**
+     * Name of the directive choosing the compilation mode.
+     */
+    public static final String DIRECTIVE = "compile";
+
+    /**
+     * @return the customizer applying the mode or null if the mode does not need any
+     */
+    public CompilationCustomizer createCustomizer() {
+        switch (this) {
+            case TYPE_CHECKED:
+                return new ASTTransformationCustomizer(TypeChecked.class);
+            case STATIC:
+                return new ASTTransformationCustomizer(CompileStatic.class);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get the mode chosen by the directives of a script.
+     *
+     * @param directives the script directives
+     * @param defaultMode the mode used if the script does not choose one
+     * @return the compilation mode
+     */
+    public static CompilationMode of(ScriptDirectives directives, CompilationMode defaultMode) {
+        String value = directives.get(DIRECTIVE);
+        if (value == null) {
+            return defaultMode;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "static":
+                return STATIC;
+            case "typed":
+            case "type_checked":
+                return TYPE_CHECKED;
+            case "dynamic":
+                return DYNAMIC;
+            default:
+                return defaultMode;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.orbisgis.ui.editors.groovy.GroovyOutputConsole.GroovyConsoleContent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Output of the scripts into the groovy output console. The console is cleared when a script starts while no other
+ * script is running, otherwise the name of the new script is appended after the output of the running ones.
+ */
+public class ConsoleScriptOutput implements ScriptOutput {
+
+    public static final ConsoleScriptOutput INSTANCE = new ConsoleScriptOutput();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private ConsoleScriptOutput() {
+    }
+
+    @Override
+    public void begin(String name) {
+        if (running.getAndIncrement() == 0) {
+            GroovyConsoleContent.writeFileNameIntoConsole(name);
+        } else {
+            GroovyConsoleContent.appendFileNameIntoConsole(name);
+        }
+    }
+
+    @Override
+    public void write(String text) {
+        GroovyConsoleContent.writeIntoConsole(text, true);
+    }
+
+    @Override
+    public void end(boolean success, String error) {
+        if (success) {
+            GroovyConsoleContent.writeIntoConsole("END");
+        } else {
+            if (error != null) {
+                GroovyConsoleContent.writeIntoConsole(error, true);
+            }
+            GroovyConsoleContent.writeIntoConsole("BAD_END");
+        }
+        running.updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    @Override
+    public void flush() {
+        GroovyConsoleContent.flush();
+    }
+}
@@ -20,18 +20,44 @@ package org.orbisgis.ui.editors.groovy;
 
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.orbisgis.core.CoreActivator;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.checkpoint.ScriptCheckpoints;
+import org.orbisgis.ui.editors.groovy.console.ScriptSystemOut;
+import org.orbisgis.ui.editors.groovy.datasource.DataSourcePool;
+import org.orbisgis.ui.editors.groovy.memo.DiskMemoCache;
+import org.orbisgis.ui.editors.groovy.worker.GroovyWorkerPool;
 import org.osgi.framework.BundleContext;
 
+import java.nio.file.Path;
+
 public class GroovyActivator extends AbstractUIPlugin {
 
+    private static final Logger LOGGER = new Logger(GroovyActivator.class);
+
     @Override
     public void start(BundleContext context) throws Exception {
         super.start(context);
         CoreActivator.getInstance().getCoreWorkspace().extend(new GroovyWorkspaceExtension());
+        try {
+            Path groovyFolder = GroovyUtils.getGroovyFolder().getLocation().toFile().toPath();
+            DiskMemoCache.getInstance().setDirectory(groovyFolder.resolve(".memo"));
+            ScriptCheckpoints.setDirectory(groovyFolder.resolve(".checkpoints"));
+        } catch (Exception e) {
+            LOGGER.warn("No Groovy workspace folder, the memoized results and the checkpoints are kept in the " +
+                    "temporary folder.");
+        }
+        GroovySessionPool.warmUp();
+        GroovyPrecompiler.install();
     }
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        GroovyPrecompiler.uninstall();
+        GroovySessionPool.clear();
+        GroovyWorkerPool.clear();
+        DataSourcePool.getInstance().clear();
+        GroovyExecutor.shutdown();
+        ScriptSystemOut.uninstall();
         super.stop(context);
     }
 }
@@ -18,7 +18,11 @@
  */
 package org.orbisgis.ui.editors.groovy;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextSelection;
@@ -37,10 +41,16 @@ import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.ui.controls.VerticalButton;
 import org.jkiss.dbeaver.ui.controls.VerticalFolder;
 import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.GroovyOutputConsole.GroovyConsoleContent;
+import org.orbisgis.ui.editors.groovy.cells.CellCache;
+import org.orbisgis.ui.editors.groovy.cells.CellJob;
+import org.orbisgis.ui.editors.groovy.runset.RunSetJob;
 import org.orbisgis.ui.editors.groovy.syntax.GroovySourceViewerConfiguration;
+import org.orbisgis.ui.editors.groovy.worker.GroovyWorkerPool;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 
 public class GroovyEditor extends AbstractDecoratedTextEditor implements ISaveablePart2 {
 
@@ -51,6 +61,11 @@ public class GroovyEditor extends AbstractDecoratedTextEditor implements ISaveab
     private static final int SIDE_TOOLBAR_VERTICAL_SPACING = 3;
 
     private GroovyJob job;
+    private GroovySession session = null;
+    private CompilationMode compilationMode = CompilationMode.DYNAMIC;
+    private boolean workerMode = false;
+    private GroovySession cellSession = null;
+    private final CellCache cellCache = new CellCache();
 
     public GroovyEditor(){
         super();
@@ -114,6 +129,7 @@ public class GroovyEditor extends AbstractDecoratedTextEditor implements ISaveab
         GroovyEditorControl editorControl = new GroovyEditorControl(groovyEditor, this);
         super.createPartControl(editorControl);
         editorControl.setLayoutData(new GridData(GridData.FILL_BOTH));
+        GroovySessionPool.warmUp();
     }
 
     private void createControlsBar(Composite editorPanel) {
@@ -132,7 +148,17 @@ public class GroovyEditor extends AbstractDecoratedTextEditor implements ISaveab
 
         VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_EXECUTE_SELECTION, false);
         VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_EXECUTE_SCRIPT, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_EXECUTE_CELLS, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_EXECUTE_PROFILED, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_RUN_SET, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_STATIC_COMPILATION, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_COMPARE_COMPILATION, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_WORKER_MODE, false);
         VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_CLEAR, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_SESSION_MODE, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_SESSION_RESET, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_SESSION_RESTART, false);
+        VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_SESSION_MEMORY, false);
         UIUtils.createEmptyLabel(sideToolBar, 1, 1).setLayoutData(new GridData(GridData.FILL_VERTICAL));
         VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_LIST_CLASSPATHS, false);
         VerticalButton.create(sideToolBar, SWT.LEFT | SWT.PUSH, getSite(), GroovyEditorCommands.CMD_ADD_DIR_TO_CLASSPATH, false);
@@ -165,25 +191,233 @@ public class GroovyEditor extends AbstractDecoratedTextEditor implements ISaveab
         this.doSave(new NullProgressMonitor());
         IDocument document = getDocument();
         if(document != null){
-            job = new GroovyJob(getPartName(), document.get());
+            job = createJob(document.get());
+            job.setResource(getEditorInput().getAdapter(IResource.class));
             job.schedule();
         }
     }
 
+    /**
+     * Execute the whole script with the profiler, which writes the hot spots of the script into the console at the end
+     * of the execution.
+     */
+    public void executeProfiled(){
+        this.doSave(new NullProgressMonitor());
+        IDocument document = getDocument();
+        if(document != null){
+            job = createJob(document.get());
+            job.setResource(getEditorInput().getAdapter(IResource.class));
+            job.setProfiled(true);
+            job.schedule();
+        }
+    }
+
+    /**
+     * Execute the cells of the script, delimited by the '//%%' lines. Only the changed cells and the cells below them
+     * are executed, the variables and the output of the cells above them being restored from the previous executions.
+     */
+    public void executeCells(){
+        this.doSave(new NullProgressMonitor());
+        IDocument document = getDocument();
+        if(document == null){
+            return;
+        }
+        if(cellSession == null){
+            cellSession = new GroovySession(true);
+        }
+        else if(!Arrays.equals(cellSession.getClassPaths(), ClassPathHandler.getUrlsInArray())){
+            // The cached variables may use the classes of the previous class paths
+            cellSession.restart();
+            cellCache.clear();
+        }
+        CellJob cellJob = new CellJob(getPartName(), document.get(), cellSession, cellCache, compilationMode);
+        cellJob.setResource(getEditorInput().getAdapter(IResource.class));
+        cellJob.setOwner(this);
+        cellJob.schedule();
+    }
+
+    /**
+     * Execute the scripts of the folder of the edited script as a run set, see {@link RunSetJob}. The open editors are
+     * saved first as the scripts are read from their files.
+     */
+    public void executeRunSet(){
+        getSite().getPage().saveAllEditors(false);
+        IResource resource = getEditorInput().getAdapter(IResource.class);
+        if(resource == null || resource.getParent() == null){
+            GroovyConsoleContent.writeIntoConsole("\nThe script " + getPartName() + " is not in a workspace folder\n", true);
+            return;
+        }
+        RunSetJob runSetJob = new RunSetJob(resource.getParent());
+        runSetJob.setOwner(this);
+        runSetJob.schedule();
+    }
+
     public void executeSelection() {
         this.doSave(new NullProgressMonitor());
         IDocument document = getDocument();
         if(document != null){
             ITextSelection selection = (ITextSelection) getSelectionProvider().getSelection();
             if (!selection.getText().isEmpty()) {
-                job = new GroovyJob(getPartName(), selection.getText());
+                job = createJob(selection.getText());
+                job.setCheckpointsEnabled(false);
                 job.schedule();
             }
         }
     }
 
+    /**
+     * Create the job executing the given script, in the session of the editor if the session mode is enabled.
+     *
+     * @param script the script to execute
+     * @return the job to schedule
+     */
+    private GroovyJob createJob(String script){
+        GroovyJob newJob = session != null ? new GroovyJob(getPartName(), script, session) :
+                new GroovyJob(getPartName(), script);
+        newJob.setCompilationMode(compilationMode);
+        newJob.setOwner(this);
+        newJob.setOutOfProcess(workerMode);
+        return newJob;
+    }
+
+    /**
+     * Switch the default compilation mode of the editor between dynamic and static compilation. A script can still
+     * choose its own mode with the '// @compile' directive.
+     */
+    public void toggleStaticCompilation(){
+        compilationMode = compilationMode == CompilationMode.STATIC ? CompilationMode.DYNAMIC : CompilationMode.STATIC;
+        GroovyConsoleContent.writeIntoConsole("\n" + (compilationMode == CompilationMode.STATIC ? "Static" : "Dynamic") +
+                " compilation enabled for " + getPartName() + "\n", true);
+    }
+
+    /**
+     * Enable or disable the execution of the scripts in a worker JVM, which protects the workbench from the scripts
+     * exhausting the memory. The session variables are not available in a worker JVM.
+     */
+    public void toggleWorkerMode(){
+        workerMode = !workerMode;
+        if(workerMode){
+            GroovyWorkerPool.warmUp();
+        }
+        GroovyConsoleContent.writeIntoConsole("\nWorker JVM execution " + (workerMode ? "enabled" : "disabled") +
+                " for " + getPartName() + "\n", true);
+    }
+
+    /**
+     * Execute the script with the dynamic compilation then with the static compilation, and write the timings of
+     * both executions into the console. The second execution is only done if the first one succeeds.
+     */
+    public void compareCompilationModes(){
+        this.doSave(new NullProgressMonitor());
+        IDocument document = getDocument();
+        if(document == null){
+            return;
+        }
+        String script = document.get();
+        GroovyJob dynamicJob = createJob(script);
+        dynamicJob.forceCompilationMode(CompilationMode.DYNAMIC);
+        GroovyJob staticJob = createJob(script);
+        staticJob.forceCompilationMode(CompilationMode.STATIC);
+        staticJob.setResource(getEditorInput().getAdapter(IResource.class));
+        dynamicJob.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                if(dynamicJob.isSucceeded()) {
+                    job = staticJob;
+                    staticJob.schedule();
+                }
+            }
+        });
+        staticJob.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                StringBuilder sb = new StringBuilder("\nCompilation mode comparison of ").append(getPartName()).append(" :\n");
+                sb.append(String.format("  %-8s : %12s %12s%n", "", "compilation", "execution"));
+                sb.append(String.format("  %-8s : %9.3f ms %9.3f ms%n", "dynamic", dynamicJob.getCompileTime() / 1e6,
+                        dynamicJob.getRunTime() / 1e6));
+                if(staticJob.isSucceeded()) {
+                    sb.append(String.format("  %-8s : %9.3f ms %9.3f ms%n", "static", staticJob.getCompileTime() / 1e6,
+                            staticJob.getRunTime() / 1e6));
+                    sb.append(String.format("  static execution is %.1fx faster%n",
+                            (double) dynamicJob.getRunTime() / Math.max(1, staticJob.getRunTime())));
+                }
+                else {
+                    sb.append("  static compilation or execution failed, see the error markers\n");
+                }
+                GroovyConsoleContent.writeIntoConsole(sb.toString(), true);
+            }
+        });
+        job = dynamicJob;
+        dynamicJob.schedule();
+    }
+
+    /**
+     * Enable or disable the session mode. In session mode, the variables, the loaded classes and the open connections
+     * are kept from an execution to the next one.
+     */
+    public void toggleSessionMode(){
+        if(session == null){
+            session = new GroovySession(true);
+            GroovyConsoleContent.writeIntoConsole("\nSession mode enabled for " + getPartName() + "\n", true);
+        }
+        else {
+            session.close();
+            session = null;
+            GroovyConsoleContent.writeIntoConsole("\nSession mode disabled for " + getPartName() + "\n", true);
+        }
+    }
+
+    /**
+     * Remove the variables of the session.
+     */
+    public void resetSession(){
+        if(session != null){
+            session.reset();
+            GroovyConsoleContent.writeIntoConsole("\nSession variables removed\n", true);
+        }
+    }
+
+    /**
+     * Restart the session with new variables and a new class loader.
+     */
+    public void restartSession(){
+        if(session != null){
+            session.restart();
+            GroovyConsoleContent.writeIntoConsole("\nSession restarted\n", true);
+        }
+    }
+
+    /**
+     * Write the content and the memory use of the session into the console.
+     */
+    public void showSessionMemory(){
+        if(session != null){
+            GroovyConsoleContent.writeIntoConsole("\n" + session.getMemoryReadout(), true);
+        }
+        else {
+            GroovyConsoleContent.writeIntoConsole("\nSession mode is disabled for " + getPartName() + "\n", true);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if(session != null){
+            session.close();
+            session = null;
+        }
+        if(cellSession != null){
+            cellSession.close();
+            cellSession = null;
+        }
+        cellCache.clear();
+        super.dispose();
+    }
+
+    /**
+     * Cancel all the queued and running jobs of the editor.
+     */
     public void stop(){
-        this.getRunningJob().cancel();
+        Job.getJobManager().cancel(this);
     }
 
     public GroovyJob getRunningJob() {
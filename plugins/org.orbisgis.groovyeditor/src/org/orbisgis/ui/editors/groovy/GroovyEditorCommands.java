@@ -27,4 +27,17 @@ public interface GroovyEditorCommands {
     String CMD_LIST_CLASSPATHS= "org.orbisgis.ui.editors.groovy.listClasspaths";
     String CMD_ADD_DIR_TO_CLASSPATH= "org.orbisgis.ui.editors.groovy.addDirectoryToClasspaths";
     String CMD_ADD_JAR_TO_CLASSPATH= "org.orbisgis.ui.editors.groovy.addJarToClasspath";
+    String CMD_SESSION_MODE= "org.orbisgis.ui.editors.groovy.session.mode";
+    String CMD_SESSION_RESET= "org.orbisgis.ui.editors.groovy.session.reset";
+    String CMD_SESSION_RESTART= "org.orbisgis.ui.editors.groovy.session.restart";
+    String CMD_SESSION_MEMORY= "org.orbisgis.ui.editors.groovy.session.memory";
+    String CMD_OUTPUT_HISTORY= "org.orbisgis.ui.editors.groovy.outputHistory";
+    String CMD_OUTPUT_EXPORT= "org.orbisgis.ui.editors.groovy.exportOutput";
+    String CMD_EXECUTE_PROFILED= "org.orbisgis.ui.editors.groovy.execute.profiled";
+    String CMD_STATIC_COMPILATION= "org.orbisgis.ui.editors.groovy.compilation.static";
+    String CMD_COMPARE_COMPILATION= "org.orbisgis.ui.editors.groovy.compilation.compare";
+    String CMD_RUN_QUEUE= "org.orbisgis.ui.editors.groovy.runQueue";
+    String CMD_WORKER_MODE= "org.orbisgis.ui.editors.groovy.worker.mode";
+    String CMD_RUN_SET= "org.orbisgis.ui.editors.groovy.runSet";
+    String CMD_EXECUTE_CELLS= "org.orbisgis.ui.editors.groovy.execute.cells";
 }
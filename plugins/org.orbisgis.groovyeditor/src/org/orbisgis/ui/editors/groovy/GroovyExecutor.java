@@ -0,0 +1,108 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.orbisgis.core.logger.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded thread pool running the groovy scripts of all the editors.
+ *
+ * The pool is configured with the system properties :
+ * <ul>
+ *     <li>{@link #SIZE_PROPERTY} : number of scripts running at the same time</li>
+ *     <li>{@link #VIRTUAL_PROPERTY} : use virtual threads if the JVM supports them</li>
+ * </ul>
+ * The scripts are submitted by the {@link GroovyJob} holding a slot of the {@link GroovyRunScheduler}, which has
+ * {@link #SIZE} slots : a submitted script always finds a free thread and the scripts wait for their turn in the
+ * scheduler, not in the queue of the pool.
+ */
+public class GroovyExecutor {
+
+    private static final Logger LOGGER = new Logger(GroovyExecutor.class);
+
+    public static final String SIZE_PROPERTY = "org.orbisgis.groovyeditor.executor.size";
+    public static final String VIRTUAL_PROPERTY = "org.orbisgis.groovyeditor.executor.virtual";
+
+    /**
+     * Number of threads of the pool.
+     */
+    public static final int SIZE = Math.max(1, Integer.getInteger(SIZE_PROPERTY,
+            Math.max(2, Runtime.getRuntime().availableProcessors())));
+
+    private static final String THREAD_NAME = "Groovy script ";
+
+    private static ThreadPoolExecutor executor = null;
+
+    /**
+     * Get the executor, creating it on the first call.
+     *
+     * @return the shared executor
+     */
+    public static synchronized ExecutorService getInstance() {
+        if (executor == null || executor.isShutdown()) {
+            executor = new ThreadPoolExecutor(SIZE, SIZE, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    createThreadFactory(Boolean.getBoolean(VIRTUAL_PROPERTY)));
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * Stop the executor, interrupting the running scripts.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Create the factory of the script threads. Virtual threads are looked up by reflection as the plugin targets
+     * Java 11.
+     *
+     * @param virtual true to use virtual threads
+     * @return the thread factory
+     */
+    private static ThreadFactory createThreadFactory(boolean virtual) {
+        if (virtual) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME, 1L);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Virtual threads are not available, platform threads are used instead.");
+            }
+        }
+        AtomicInteger count = new AtomicInteger(1);
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -18,84 +18,448 @@
  */
 package org.orbisgis.ui.editors.groovy;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.net.URLClassLoader;
+import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
-import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.jkiss.dbeaver.model.runtime.DefaultProgressMonitor;
 import org.orbisgis.core.logger.Logger;
-import org.orbisgis.ui.editors.groovy.GroovyOutputConsole.GroovyConsoleContent;
-import org.orbisgis.ui.editors.groovy.logger.GroovyLogger;
+import org.orbisgis.ui.editors.groovy.checkpoint.ScriptCheckpoints;
+import org.orbisgis.ui.editors.groovy.console.ConsoleWriter;
+import org.orbisgis.ui.editors.groovy.console.ScriptSystemOut;
+import org.orbisgis.ui.editors.groovy.datasource.ScriptBatchWriters;
+import org.orbisgis.ui.editors.groovy.datasource.ScriptCursors;
+import org.orbisgis.ui.editors.groovy.datasource.ScriptDataSources;
+import org.orbisgis.ui.editors.groovy.frame.ScriptFrames;
+import org.orbisgis.ui.editors.groovy.profiler.ProfilingCustomizer;
+import org.orbisgis.ui.editors.groovy.profiler.ScriptProfiler;
+import org.orbisgis.ui.editors.groovy.worker.GroovyWorker;
+import org.orbisgis.ui.editors.groovy.worker.GroovyWorkerPool;
 
 import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyShell;
-import groovy.transform.ThreadInterrupt;
+import groovy.lang.Script;
 
 public class GroovyJob extends Job {
 
     private static final Logger LOGGER = new Logger(GroovyJob.class);
 
+    /**
+     * Number of lines and methods shown in the profiling report.
+     */
+    private static final int PROFILER_TOP = Integer.getInteger("org.orbisgis.groovyeditor.profiler.top", 20);
+
+    /**
+     * Delay in milliseconds between two measures of the resources used by the script.
+     */
+    private static final long SAMPLE_DELAY = 500;
+
     private String script;
     private GroovyShell shell = null;
     private Binding binding;
     private String name;
-    private Thread t;
+    private GroovySession session;
+    private Future<?> future;
+    private ConsoleWriter output;
+    private URL[] classPaths;
+    private String configurationKey;
+    private boolean profiled = false;
+    private ScriptProfiler profiler;
+    private CompilationMode compilationMode = CompilationMode.DYNAMIC;
+    private boolean compilationModeForced = false;
+    private CompilationMode mode;
+    private IResource resource = null;
+    private volatile long compileTime = 0;
+    private volatile long runTime = 0;
+    private volatile boolean succeeded = false;
+    private ScriptResourceMeter meter;
+    private ScriptProgress progress;
+    private boolean progressBegun;
+    private ScriptCheckpoints checkpoints;
+    private boolean checkpointsEnabled = true;
+    private ScriptDataSources dataSources;
+    private ScriptBatchWriters batchWriters;
+    private String exceededLimit;
+    private GroovyRunScheduler.Priority runPriority;
+    private Object owner = null;
+    private boolean outOfProcess = false;
+    private volatile GroovyWorker worker = null;
+    private ScriptOutput scriptOutput = ConsoleScriptOutput.INSTANCE;
+
+    /**
+     * Name of the directive executing the script in a worker JVM.
+     */
+    public static final String WORKER_DIRECTIVE = "worker";
 
     public GroovyJob(String name, String script) {
+        this(name, script, GroovySessionPool.take());
+    }
+
+    /**
+     * Create a job executing the script in the given session.
+     *
+     * @param name the name of the script
+     * @param script the script to execute
+     * @param session the session providing the binding and the shell
+     */
+    public GroovyJob(String name, String script, GroovySession session) {
         super(name);
         this.script = script;
         this.name = name;
-        binding = new Binding();
-        binding.setProperty("logger", new GroovyLogger(GroovyShell.class));
-        binding.setProperty("out", new StringWriter());
-        
-        CompilerConfiguration configuratorConfig = new CompilerConfiguration(System.getProperties());
-        configuratorConfig.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class));
-   
-        try {
-        	URLClassLoader classLoader = new URLClassLoader( ClassPathHandler.getUrlsInArray(), Thread.currentThread().getContextClassLoader() );
-        	shell = new GroovyShell(classLoader, binding, configuratorConfig);
-        }  catch (Exception e) {
-            LOGGER.warn("Unable to create GroovyShell instead.");
+        this.session = session;
+        shell = session.getShell();
+        ScriptDirectives directives = ScriptDirectives.parse(script);
+        runPriority = GroovyRunScheduler.Priority.of(directives);
+        setPriority(runPriority.getJobPriority());
+        List<ISchedulingRule> rules = new ArrayList<>();
+        if(session.isPersistent()) {
+            rules.add(session);
         }
+        for(String dataSource : directives.getAll(GroovyRunScheduler.DATASOURCE_DIRECTIVE)) {
+            if(!dataSource.isEmpty()) {
+                rules.add(GroovyRunScheduler.dataSourceRule(dataSource));
+            }
+        }
+        setRule(MultiRule.combine(rules.toArray(new ISchedulingRule[0])));
+        addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void scheduled(IJobChangeEvent event) {
+                GroovyRunScheduler.getInstance().add(GroovyJob.this);
+            }
+
+            @Override
+            public void done(IJobChangeEvent event) {
+                GroovyRunScheduler.getInstance().remove(GroovyJob.this);
+            }
+        });
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return family == GroovyRunScheduler.FAMILY || (owner != null && family == owner);
     }
 
     @Override
     protected IStatus run(IProgressMonitor iProgressMonitor) {
+        // The session may have been reset or restarted since the job creation
+        if(session.isPersistent()) {
+            shell = session.getShell();
+        }
+        binding = session.getBinding();
+        output = new ConsoleWriter(chunk -> scriptOutput.write(chunk));
+        PrintWriter out = new PrintWriter(output, false);
+        binding.setProperty("out", out);
+        progress = new ScriptProgress();
+        progressBegun = false;
+        binding.setProperty("progress", progress);
+        checkpoints = openCheckpoints();
+        binding.setProperty("checkpoint", checkpoints);
+        dataSources = new ScriptDataSources(new DefaultProgressMonitor(iProgressMonitor));
+        binding.setProperty("datasources", dataSources);
+        batchWriters = new ScriptBatchWriters(dataSources, out);
+        binding.setProperty("batch", batchWriters);
+        ScriptCursors cursors = new ScriptCursors(dataSources);
+        binding.setProperty("cursor", cursors);
+        binding.setProperty("frame", new ScriptFrames(cursors));
+        classPaths = session.getClassPaths();
+        configurationKey = session.getConfigurationKey();
+        profiler = profiled ? new ScriptProfiler() : null;
+        mode = compilationModeForced ? compilationMode :
+                CompilationMode.of(ScriptDirectives.parse(script), compilationMode);
+        if(resource != null && !session.isPersistent()) {
+            // The script saved before its execution is being compiled in background
+            GroovyPrecompiler.awaitPrecompilation();
+        }
+        succeeded = false;
+        compileTime = 0;
+        runTime = 0;
+        meter = new ScriptResourceMeter();
+        exceededLimit = null;
         GroovyRunnable run = new GroovyRunnable(shell, name, script, binding);
-        t = new Thread(run);
-        t.start();
+        iProgressMonitor.subTask("Waiting for a free Groovy slot");
+        if(!GroovyRunScheduler.getInstance().acquire(this, iProgressMonitor)) {
+            scriptOutput.begin(name);
+            scriptOutput.end(false, "Canceled while waiting for a free Groovy slot.\n");
+            closeResources();
+            iProgressMonitor.done();
+            return Status.CANCEL_STATUS;
+        }
+        if(outOfProcess || ScriptDirectives.parse(script).has(WORKER_DIRECTIVE)) {
+            try {
+                return runInWorker(iProgressMonitor);
+            } finally {
+                GroovyRunScheduler.getInstance().release(this);
+            }
+        }
         int status = IStatus.ERROR;
         try {
-            t.join();
+            future = GroovyExecutor.getInstance().submit(run);
+            session.executionStarted();
+            waitFor(iProgressMonitor);
             status = run.getStatus();
+            succeeded = status == IStatus.OK;
+        } catch (CancellationException e) {
+            run.awaitTermination();
+            status = IStatus.CANCEL;
         } catch (InterruptedException e) {
             LOGGER.error("Unable to execute the Groovy script thread.", e);
-        } catch (Exception e){
+        } catch (ExecutionException e){
             LOGGER.error("Error while execution the Groovy script.", e);
+        } finally {
+            GroovyRunScheduler.getInstance().release(this);
         }
+        closeResources();
         Object result = run.getResult();
         String message =  "Groovy script successfully executed.";
         if(result != null){
             message = result.toString();
         }
+        if(exceededLimit != null){
+            message = "Groovy script interrupted : " + exceededLimit + ".";
+        }
+        message += " (" + meter.describe() + ")";
+        GroovyScriptCache cache = GroovyScriptCache.getInstance();
+        if(mode != CompilationMode.DYNAMIC) {
+            message += " [" + mode + " compilation]";
+        }
+        message += " (" + (run.isCompilationCached() ? "compiled script cache hit" : "compiled script cache miss") +
+                ", " + cache.getHits() + " hits / " + cache.getMisses() + " misses)";
         if(status == IStatus.OK) {
             LOGGER.info(message);
         }
+        iProgressMonitor.done();
         return new Status(IStatus.OK, GroovyJob.class.getName(), message);
     }
 
+    /**
+     * Execute the script in a worker JVM. The variables of the session and the data sources are not available in
+     * the worker.
+     *
+     * @param monitor the progress monitor of the job
+     * @return the status of the job
+     */
+    private IStatus runInWorker(IProgressMonitor monitor) {
+        scriptOutput.begin(name);
+        showCheckpoints();
+        monitor.subTask("Running in a worker JVM");
+        String message;
+        try {
+            worker = GroovyWorkerPool.take();
+            if(monitor.isCanceled()) {
+                worker.cancel();
+            }
+            long start = System.nanoTime();
+            GroovyWorker.Result result = worker.run(name, checkpointsEnabled ? checkpointsId() : null, script,
+                    classPaths, scriptOutput::write);
+            runTime = System.nanoTime() - start;
+            succeeded = result.isSuccess();
+            scriptOutput.end(succeeded, succeeded ? null : result.getMessage());
+            if(succeeded) {
+                message = result.getMessage().isEmpty() ? "Groovy script successfully executed." : result.getMessage();
+            }
+            else {
+                message = "Error while execution the Groovy script.";
+            }
+            message += String.format(" (worker JVM, wall %.2f s)", runTime / 1e9);
+            GroovyWorkerPool.release(worker);
+        } catch (IOException e) {
+            LOGGER.error("Unable to start a Groovy worker JVM.", e);
+            message = "Unable to start a Groovy worker JVM.";
+            scriptOutput.end(false, message);
+        } finally {
+            worker = null;
+        }
+        closeResources();
+        if(succeeded) {
+            LOGGER.info(message);
+        }
+        monitor.done();
+        return new Status(IStatus.OK, GroovyJob.class.getName(), message);
+    }
+
+    /**
+     * Open the checkpoints of the script, removing first the expired checkpoints of all the scripts.
+     *
+     * @return the checkpoints of the script
+     */
+    private ScriptCheckpoints openCheckpoints() {
+        if(!checkpointsEnabled) {
+            return ScriptCheckpoints.disabled();
+        }
+        try {
+            ScriptCheckpoints.purge(ScriptCheckpoints.getDirectory(), ScriptCheckpoints.MAX_AGE,
+                    ScriptCheckpoints.MAX_SIZE);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to remove the expired Groovy checkpoints.", e);
+        }
+        return new ScriptCheckpoints(checkpointsId());
+    }
+
+    /**
+     * @return the identifier of the checkpoints, the workspace path of the script file or else the script name
+     */
+    private String checkpointsId() {
+        return resource != null ? resource.getFullPath().toString() : name;
+    }
+
+    /**
+     * Write the stages which will be skipped into the output.
+     */
+    private void showCheckpoints() {
+        List<String> stages = checkpoints.list();
+        if(!stages.isEmpty()) {
+            scriptOutput.write("Resuming from the checkpoints " + stages + "\n");
+        }
+    }
+
+    /**
+     * Remove the checkpoints of a successful script, so its next execution starts from the beginning.
+     */
+    private void closeCheckpoints() {
+        if(succeeded && !ScriptCheckpoints.KEEP) {
+            try {
+                checkpoints.clear();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to remove the Groovy checkpoints of '" + name + "'.", e);
+            }
+        }
+    }
+
+    /**
+     * Release the checkpoints and the data sources opened for the script and wait for the end of its output, whether
+     * the script has been executed or canceled before its start.
+     */
+    private void closeResources() {
+        closeCheckpoints();
+        dataSources.close();
+        scriptOutput.flush();
+    }
+
+    /**
+     * Wait for the end of the script, showing the resources it uses and checking its limits. The script is
+     * interrupted when a hard limit is exceeded.
+     *
+     * @param monitor the progress monitor of the job
+     */
+    private void waitFor(IProgressMonitor monitor) throws InterruptedException, ExecutionException {
+        boolean warned = false;
+        while (true) {
+            try {
+                future.get(SAMPLE_DELAY, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                reportProgress(monitor);
+                String soft = meter.exceeded(ScriptResourceMeter.SOFT_ALLOCATION, ScriptResourceMeter.SOFT_CPU);
+                if (!warned && soft != null) {
+                    warned = true;
+                    scriptOutput.write("\nWarning, soft limit exceeded : " + soft + "\n");
+                }
+                String hard = meter.exceeded(ScriptResourceMeter.HARD_ALLOCATION, ScriptResourceMeter.HARD_CPU);
+                if (hard != null && exceededLimit == null) {
+                    exceededLimit = "hard limit exceeded, " + hard;
+                    LOGGER.warn("The Groovy script " + name + " is interrupted : " + exceededLimit);
+                    // The interruption is detected by the checks added by the ThreadInterrupt customizer
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Show the progress given by the script through its {@link ScriptProgress} and the resources it uses. The progress
+     * bar stays indeterminate until the script gives its amount of work.
+     *
+     * @param monitor the progress monitor of the job
+     */
+    private void reportProgress(IProgressMonitor monitor) {
+        String text = progress.sample(System.nanoTime());
+        int worked = progress.advance();
+        if (progress.getTotal() > 0 && !progressBegun) {
+            monitor.beginTask(name, ScriptProgress.SCALE);
+            progressBegun = true;
+        }
+        if (worked > 0) {
+            monitor.worked(worked);
+        }
+        monitor.subTask(text == null ? meter.describe() : text + " | " + meter.describe());
+    }
+
+    /**
+     * Get the key of a compiler configuration, including the options of the job.
+     *
+     * @param configurationKey the configuration key of the session
+     * @param mode the compilation mode
+     * @param profiled true if the script is instrumented by the profiler
+     * @return the configuration key
+     */
+    static String compilationKey(String configurationKey, CompilationMode mode, boolean profiled) {
+        String key = configurationKey;
+        if(mode != CompilationMode.DYNAMIC) {
+            key += ";" + mode;
+        }
+        if(profiled) {
+            key += ";" + ProfilingCustomizer.KEY;
+        }
+        return key;
+    }
+
+    /**
+     * Get the class loader compiling a script, which adds the compilation mode and the profiling instrumentation if
+     * needed.
+     *
+     * @param parent the class loader of the session
+     * @param mode the compilation mode
+     * @param profiled true if the script is instrumented by the profiler
+     * @return the class loader
+     */
+    static GroovyClassLoader compilationLoader(GroovyClassLoader parent, CompilationMode mode, boolean profiled) {
+        if(!profiled && mode == CompilationMode.DYNAMIC) {
+            return parent;
+        }
+        CompilerConfiguration configuration = GroovySession.createConfiguration();
+        if(mode.createCustomizer() != null) {
+            configuration.addCompilationCustomizers(mode.createCustomizer());
+        }
+        if(profiled) {
+            // Replacing the JDBC calls by dynamic calls would break the type checking
+            configuration.addCompilationCustomizers(new ProfilingCustomizer(mode == CompilationMode.DYNAMIC));
+        }
+        return new GroovyClassLoader(parent, configuration);
+    }
+
     @Override
     protected void canceling() {
         super.canceling();
-        if(t.isAlive()) {
-            t.interrupt();
+        if(future != null) {
+            future.cancel(true);
+        }
+        GroovyWorker current = worker;
+        if(current != null) {
+            current.cancel();
         }
     }
 
@@ -106,7 +470,10 @@ public class GroovyJob extends Job {
         private String script;
         private Binding binding;
         private String name;
-        private int status;
+        private int status = IStatus.ERROR;
+        private boolean compilationCached = false;
+        private volatile boolean started = false;
+        private final CountDownLatch finished = new CountDownLatch(1);
         private StringWriter sw = new StringWriter();
         private PrintWriter pw = new PrintWriter(sw);
 
@@ -119,22 +486,77 @@ public class GroovyJob extends Job {
 
         @Override
         public void run() {
+            started = true;
+            meter.register();
+            scriptOutput.begin(name);
+            showCheckpoints();
+            ScriptSystemOut.redirect(output);
+            String sStackTrace = null;
             try {
-                shell.run(script,name, new String[] {});
-                String outputStream = shell.getProperty("out").toString();
-                GroovyConsoleContent.writeFileNameIntoConsole(name);
-                GroovyConsoleContent.writeIntoConsole(outputStream, true);
-                GroovyConsoleContent.writeIntoConsole("END");
-                LOGGER.trace(outputStream);
+                String key = GroovyScriptCache.key(script, classPaths,
+                        compilationKey(configurationKey, mode, profiler != null));
+                Class<?> scriptClass = GroovyScriptCache.getInstance().get(key);
+                compilationCached = scriptClass != null;
+                if(!compilationCached) {
+                    long compileStart = System.nanoTime();
+                    try {
+                        scriptClass = compilationLoader(shell.getClassLoader(), mode, profiler != null).parseClass(
+                                new GroovyCodeSource(script, name, GroovyShell.DEFAULT_CODE_BASE), false);
+                    } catch (CompilationFailedException e) {
+                        GroovyMarkers.report(resource, e);
+                        throw e;
+                    }
+                    compileTime = System.nanoTime() - compileStart;
+                    GroovyScriptCache.getInstance().put(key, scriptClass, script.length());
+                }
+                GroovyMarkers.clear(resource);
+                binding.setVariable("args", new String[] {});
+                Script compiledScript = InvokerHelper.createScript(scriptClass, binding);
+                long runStart = System.nanoTime();
+                if(profiler != null) {
+                    profiler.start();
+                }
+                try {
+                    compiledScript.run();
+                } finally {
+                    if(profiler != null) {
+                        profiler.stop();
+                    }
+                    runTime = System.nanoTime() - runStart;
+                }
                 status = IStatus.OK;
             } catch (Exception e){
                 e.printStackTrace(pw);
-                String sStackTrace = sw.toString();
-            	GroovyConsoleContent.writeFileNameIntoConsole(name);
-                GroovyConsoleContent.writeIntoConsole(sStackTrace);
-                GroovyConsoleContent.writeIntoConsole("BAD_END");
-                LOGGER.trace(sStackTrace);   
+                sStackTrace = sw.toString();
+                LOGGER.trace(sStackTrace);
                 status = IStatus.ERROR;
+            } finally {
+                ScriptSystemOut.release();
+                // The writers left open report their throughput before the end of the output
+                batchWriters.close(status == IStatus.OK);
+                output.close();
+                if(profiler != null) {
+                    scriptOutput.write(profiler.report(script, PROFILER_TOP));
+                }
+                if(status != IStatus.OK) {
+                    status = IStatus.ERROR;
+                }
+                scriptOutput.end(status == IStatus.OK, sStackTrace);
+                meter.unregister();
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Wait for the end of the script if it has been started, for example after its cancellation.
+         */
+        public void awaitTermination(){
+            if(started) {
+                try {
+                    finished.await();
+                } catch (InterruptedException e) {
+                    LOGGER.error("Interrupted while waiting for the end of the Groovy script.", e);
+                }
             }
         }
 
@@ -145,8 +567,116 @@ public class GroovyJob extends Job {
         public int getStatus(){
             return status;
         }
+
+        public boolean isCompilationCached(){
+            return compilationCached;
+        }
     }
     
+    /**
+     * Execute the script with the profiler, which reports the slowest lines at the end of the execution.
+     *
+     * @param profiled true to profile the script
+     */
+    public void setProfiled(boolean profiled) {
+        this.profiled = profiled;
+    }
+
+    /**
+     * Set the compilation mode used when the script does not choose one with a directive.
+     *
+     * @param compilationMode the default compilation mode
+     */
+    public void setCompilationMode(CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+        this.compilationModeForced = false;
+    }
+
+    /**
+     * Set the compilation mode, whatever the directives of the script.
+     *
+     * @param compilationMode the compilation mode
+     */
+    public void forceCompilationMode(CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+        this.compilationModeForced = true;
+    }
+
+    /**
+     * Set the file of the script, which receives the markers of the compilation errors.
+     *
+     * @param resource the script file
+     */
+    public void setResource(IResource resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * Enable or disable the checkpoints, which are disabled for the executions of a selection : their stages would
+     * share the checkpoints of the whole script.
+     *
+     * @param checkpointsEnabled false to always execute the checkpoint stages
+     */
+    public void setCheckpointsEnabled(boolean checkpointsEnabled) {
+        this.checkpointsEnabled = checkpointsEnabled;
+    }
+
+    /**
+     * @return the compilation time of the last execution in nanoseconds, 0 if the compiled script was cached
+     */
+    public long getCompileTime() {
+        return compileTime;
+    }
+
+    /**
+     * @return the execution time of the last execution in nanoseconds, without the compilation
+     */
+    public long getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * @return true if the last execution ended without error
+     */
+    public boolean isSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * @return the priority of the script in the run queue
+     */
+    public GroovyRunScheduler.Priority getRunPriority() {
+        return runPriority;
+    }
+
+    /**
+     * Set the owner of the job, like its editor, which can cancel all its jobs with
+     * {@code Job.getJobManager().cancel(owner)}.
+     *
+     * @param owner the owner of the job
+     */
+    public void setOwner(Object owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Execute the script in a worker JVM instead of the workbench JVM.
+     *
+     * @param outOfProcess true to use a worker JVM
+     */
+    public void setOutOfProcess(boolean outOfProcess) {
+        this.outOfProcess = outOfProcess;
+    }
+
+    /**
+     * Set the destination of the script output, the groovy output console by default.
+     *
+     * @param scriptOutput the script output
+     */
+    public void setScriptOutput(ScriptOutput scriptOutput) {
+        this.scriptOutput = scriptOutput;
+    }
+
     public void setShell(GroovyShell shell) {
 		this.shell = shell;
 	}
@@ -0,0 +1,108 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.MultipleCompilationErrorsException;
+import org.codehaus.groovy.control.messages.ExceptionMessage;
+import org.codehaus.groovy.control.messages.Message;
+import org.codehaus.groovy.control.messages.SimpleMessage;
+import org.codehaus.groovy.control.messages.SyntaxErrorMessage;
+import org.codehaus.groovy.syntax.SyntaxException;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.orbisgis.core.logger.Logger;
+
+/**
+ * Problem markers showing the compilation errors of the groovy scripts in the editors and in the problems view.
+ */
+public class GroovyMarkers {
+
+    private static final Logger LOGGER = new Logger(GroovyMarkers.class);
+
+    /**
+     * Type of the markers, declared in the plugin.xml.
+     */
+    public static final String PROBLEM_MARKER = "org.orbisgis.groovyeditor.problem";
+
+    /**
+     * Replace the markers of a script by the errors of its compilation.
+     *
+     * @param resource the script file, may be null
+     * @param exception the compilation failure
+     */
+    public static void report(IResource resource, CompilationFailedException exception) {
+        if (resource == null || !resource.exists()) {
+            return;
+        }
+        try {
+            ResourcesPlugin.getWorkspace().run(monitor -> {
+                resource.deleteMarkers(PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+                if (exception instanceof MultipleCompilationErrorsException) {
+                    for (Message message : ((MultipleCompilationErrorsException) exception).getErrorCollector().getErrors()) {
+                        createMarker(resource, message);
+                    }
+                } else {
+                    createMarker(resource, exception.getMessage(), 1);
+                }
+            }, null, IWorkspace.AVOID_UPDATE, null);
+        } catch (CoreException e) {
+            LOGGER.error("Unable to create the compilation error markers of '" + resource.getName() + "'.", e);
+        }
+    }
+
+    /**
+     * Remove the markers of a script, after a successful compilation.
+     *
+     * @param resource the script file, may be null
+     */
+    public static void clear(IResource resource) {
+        if (resource == null || !resource.exists()) {
+            return;
+        }
+        try {
+            if (resource.findMarkers(PROBLEM_MARKER, false, IResource.DEPTH_ZERO).length > 0) {
+                resource.deleteMarkers(PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+            }
+        } catch (CoreException e) {
+            LOGGER.error("Unable to remove the compilation error markers of '" + resource.getName() + "'.", e);
+        }
+    }
+
+    private static void createMarker(IResource resource, Message message) throws CoreException {
+        if (message instanceof SyntaxErrorMessage) {
+            SyntaxException cause = ((SyntaxErrorMessage) message).getCause();
+            createMarker(resource, cause.getOriginalMessage(), Math.max(1, cause.getLine()));
+        } else if (message instanceof ExceptionMessage) {
+            createMarker(resource, ((ExceptionMessage) message).getCause().getMessage(), 1);
+        } else if (message instanceof SimpleMessage) {
+            createMarker(resource, ((SimpleMessage) message).getMessage(), 1);
+        }
+    }
+
+    private static void createMarker(IResource resource, String text, int line) throws CoreException {
+        IMarker marker = resource.createMarker(PROBLEM_MARKER);
+        marker.setAttribute(IMarker.MESSAGE, text);
+        marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+        marker.setAttribute(IMarker.LINE_NUMBER, line);
+    }
+}
@@ -33,7 +33,16 @@ import org.jkiss.dbeaver.model.runtime.DBRProcessController;
 import org.jkiss.dbeaver.model.runtime.DBRProcessDescriptor;
 import org.jkiss.dbeaver.ui.ActionUtils;
 import org.jkiss.dbeaver.ui.UIUtils;
+import org.orbisgis.core.logger.Logger;
 import org.orbisgis.core.ui.ToolbarButton;
+import org.orbisgis.ui.editors.groovy.console.ConsoleScrollback;
+import org.orbisgis.ui.editors.groovy.console.ConsoleUpdateQueue;
+import org.orbisgis.ui.editors.groovy.ui.ScrollbackDialog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Methods which are able to print the groovy standard output in a specific groovy console.
@@ -87,11 +96,21 @@ public class GroovyOutputConsole extends ViewPart implements DBRProcessControlle
 
 	public static class GroovyConsoleContent{
 
+		private static final Logger LOGGER = new Logger(GroovyConsoleContent.class);
+
+		public static final String MAX_LINES_PROPERTY = "org.orbisgis.groovyeditor.console.lines";
+		public static final String MAX_CHARS_PROPERTY = "org.orbisgis.groovyeditor.console.chars";
+
+		static final int MAX_LINES = Integer.getInteger(MAX_LINES_PROPERTY, 10000);
+		static final int MAX_CHARS = Integer.getInteger(MAX_CHARS_PROPERTY, 4 * 1024 * 1024);
+
 		static StyledText text = null;
+		static ConsoleScrollback scrollback = null;
 		static Display display = null;
 		static StyleRange style1 = null;
 		static String message_END =  "\nGroovy script successfully executed.\n";
 		static String message_BAD_END =  "\nError while execution the Groovy script.\n";
+		static final ConsoleUpdateQueue UPDATES = new ConsoleUpdateQueue(GroovyConsoleContent::apply);
 
 		/**
 		 * Initialize a composite.
@@ -102,16 +121,88 @@ public class GroovyOutputConsole extends ViewPart implements DBRProcessControlle
 			text = new StyledText(group, SWT.HORIZONTAL | SWT.READ_ONLY | SWT.V_SCROLL);
 			display = PlatformUI.getWorkbench().getDisplay();
 			text.setLayoutData(new GridData());
+			if(scrollback == null) {
+				scrollback = openScrollback();
+			}
 		}
 
 		/**
-		 * Write the file name into the groovy output console.
+		 * Open the file receiving the lines removed from the console, in the groovy folder of the workspace if
+		 * available, otherwise in the temporary folder.
+		 *
+		 * @return the scrollback or null if no file can be opened
+		 */
+		private static ConsoleScrollback openScrollback() {
+			try {
+				Path file = null;
+				try {
+					file = GroovyUtils.getGroovyFolder().getLocation().toFile().toPath().resolve(".console").resolve("output.log");
+				} catch (Exception e) {
+					LOGGER.warn("No Groovy workspace folder, the console history is kept in the temporary folder.");
+				}
+				if(file == null) {
+					file = Files.createTempFile("groovy-output", ".log");
+					file.toFile().deleteOnExit();
+				}
+				return new ConsoleScrollback(file);
+			} catch (IOException e) {
+				LOGGER.error("Unable to create the Groovy console history file.", e);
+				return null;
+			}
+		}
+
+		/**
+		 * Open a dialog showing the whole output, including the lines removed from the console. Must be called from
+		 * the UI thread.
+		 */
+		public static void showHistory() {
+			if(text != null && !text.isDisposed() && scrollback != null) {
+				new ScrollbackDialog(text.getShell(), scrollback, text.getText()).open();
+			}
+		}
+
+		/**
+		 * Write the whole output, including the lines removed from the console, into a file. Must be called from the
+		 * UI thread.
+		 *
+		 * @param target the exported file
+		 */
+		public static void exportOutput(Path target) {
+			if(text == null || text.isDisposed()) {
+				return;
+			}
+			try {
+				if(scrollback != null) {
+					scrollback.export(target, text.getText());
+				}
+				else {
+					Files.write(target, text.getText().getBytes(StandardCharsets.UTF_8));
+				}
+			} catch (IOException e) {
+				LOGGER.error("Unable to export the Groovy output into '" + target + "'.", e);
+			}
+		}
+
+		/**
+		 * Write the file name into the groovy output console, replacing its previous content.
 		 *
 		 * @param fileName the file name
 		 */
 		public static void writeFileNameIntoConsole(String fileName) {
 			if(text != null) {
-				Display.getDefault().syncExec(() -> text.setText(fileName + "\n\n"));
+				UPDATES.reset(fileName + "\n\n");
+			}
+		}
+
+		/**
+		 * Write the file name into the groovy output console after its current content, for a script started while
+		 * other scripts are running.
+		 *
+		 * @param fileName the file name
+		 */
+		public static void appendFileNameIntoConsole(String fileName) {
+			if(text != null) {
+				UPDATES.append("\n" + fileName + "\n\n", SWT.NONE);
 			}
 		}
 
@@ -123,7 +214,7 @@ public class GroovyOutputConsole extends ViewPart implements DBRProcessControlle
 		 */
 		public static void writeIntoConsole(String message, boolean resultOfExecution) {
 			if(text != null) {
-				Display.getDefault().syncExec(() -> text.setText(text.getText() + message));
+				UPDATES.append(message, SWT.NONE);
 			}
 		}
 
@@ -134,27 +225,91 @@ public class GroovyOutputConsole extends ViewPart implements DBRProcessControlle
 		 */
 		public static void writeIntoConsole(String message) {
 			if(text != null) {
-				Display.getDefault().syncExec(() -> {
-					switch (message) {
-						case "ERASE":
-							text.setText("");
-							break;
-						case "END":
-							style1 = new StyleRange(text.getText().length(), message_END.length(), display.getSystemColor(SWT.COLOR_GREEN), null);
-							text.setText(text.getText() + message_END);
-							text.setStyleRange(style1);
-							break;
-						case "BAD_END":
-							style1 = new StyleRange(text.getText().length(), message_BAD_END.length(), display.getSystemColor(SWT.COLOR_RED), null);
-							text.setText(text.getText() + message_BAD_END);
-							text.setStyleRange(style1);
-							break;
-						default:
-							text.setText(text.getText() + message);
-							break;
+				switch (message) {
+					case "ERASE":
+						UPDATES.reset("");
+						break;
+					case "END":
+						UPDATES.append(message_END, SWT.COLOR_GREEN);
+						break;
+					case "BAD_END":
+						UPDATES.append(message_BAD_END, SWT.COLOR_RED);
+						break;
+					default:
+						UPDATES.append(message, SWT.NONE);
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Wait until all the previous writes are displayed in the groovy output console.
+		 */
+		public static void flush() {
+			if(text != null) {
+				UPDATES.flush();
+			}
+		}
+
+		/**
+		 * Apply an update to the console. Only the appended text is copied and styled, so the cost of a write does
+		 * not depend on the size of the console content. Called from the UI thread.
+		 *
+		 * @param update the update to apply
+		 */
+		private static void apply(ConsoleUpdateQueue.Update update) {
+			if(text == null || text.isDisposed()) {
+				return;
+			}
+			if(update.isReset()) {
+				text.setText(update.getText());
+				if(scrollback != null) {
+					try {
+						scrollback.clear();
+					} catch (IOException e) {
+						LOGGER.warn("Unable to clear the Groovy console history.", e);
 					}
-				});
+				}
+				return;
+			}
+			if(update.getText().isEmpty()) {
+				return;
+			}
+			int start = text.getCharCount();
+			text.append(update.getText());
+			if(update.getColor() != SWT.NONE) {
+				style1 = new StyleRange(start, update.getText().length(), display.getSystemColor(update.getColor()), null);
+				text.setStyleRange(style1);
+			}
+			trim();
+			text.setTopIndex(text.getLineCount() - 1);
+		}
+
+		/**
+		 * Move the first lines of the console into the scrollback file when the console exceeds its line or character
+		 * limit. The console is trimmed 10% below the limits, so the cost of the removal is shared by many writes.
+		 */
+		private static void trim() {
+			int lineCount = text.getLineCount();
+			int charCount = text.getCharCount();
+			if(lineCount <= MAX_LINES && charCount <= MAX_CHARS) {
+				return;
+			}
+			int keptLines = MAX_LINES - MAX_LINES / 10;
+			int keptChars = MAX_CHARS - MAX_CHARS / 10;
+			int line = Math.max(lineCount - keptLines, text.getLineAtOffset(Math.max(0, charCount - keptChars)) + 1);
+			int offset = text.getOffsetAtLine(Math.min(line, lineCount - 1));
+			if(offset <= 0) {
+				return;
+			}
+			if(scrollback != null) {
+				try {
+					scrollback.spill(text.getTextRange(0, offset));
+				} catch (IOException e) {
+					LOGGER.warn("Unable to write the Groovy console history.", e);
+				}
 			}
+			text.replaceTextRange(0, offset, "");
 		}
 
 	}
@@ -0,0 +1,208 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.orbisgis.core.logger.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listener compiling in background the groovy scripts of the groovy folder each time they are saved, so the compiled
+ * script cache already contains them when they are executed and their compilation errors are shown as problem markers
+ * before any execution.
+ *
+ * The scripts are compiled for a temporary session with the current class paths and in the compilation mode of their
+ * directives, which is what an execution without session mode uses.
+ */
+public class GroovyPrecompiler implements IResourceChangeListener {
+
+    private static final Logger LOGGER = new Logger(GroovyPrecompiler.class);
+
+    /**
+     * Family of the precompilation jobs.
+     */
+    public static final Object FAMILY = GroovyPrecompiler.class;
+
+    private static final GroovyPrecompiler INSTANCE = new GroovyPrecompiler();
+
+    private final Set<IFile> pending = ConcurrentHashMap.newKeySet();
+    private final PrecompileJob job = new PrecompileJob();
+    private GroovySession session = null;
+
+    /**
+     * Start listening to the saved scripts.
+     */
+    public static void install() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(INSTANCE, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    /**
+     * Stop listening to the saved scripts.
+     */
+    public static void uninstall() {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(INSTANCE);
+        INSTANCE.job.cancel();
+    }
+
+    /**
+     * Wait for the end of the running precompilations, so a script which has just been saved is not compiled twice.
+     */
+    public static void awaitPrecompilation() {
+        try {
+            Job.getJobManager().join(FAMILY, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (OperationCanceledException e) {
+            // The script will be compiled by its execution
+        }
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+        IPath folder;
+        try {
+            folder = GroovyUtils.getGroovyFolder().getFullPath();
+        } catch (Exception e) {
+            // No Groovy workspace folder, so no script to precompile
+            return;
+        }
+        try {
+            delta.accept(child -> {
+                IResource resource = child.getResource();
+                if (resource.getType() != IResource.FILE) {
+                    // Only visit the groovy folder and its parents
+                    return resource.getFullPath().isPrefixOf(folder) || folder.isPrefixOf(resource.getFullPath());
+                }
+                boolean changed = child.getKind() == IResourceDelta.ADDED ||
+                        (child.getKind() == IResourceDelta.CHANGED && (child.getFlags() & IResourceDelta.CONTENT) != 0);
+                if (changed && folder.isPrefixOf(resource.getFullPath()) &&
+                        GroovyUtils.SCRIPT_FILE_EXTENSION.equals(resource.getFileExtension())) {
+                    pending.add((IFile) resource);
+                }
+                return false;
+            });
+        } catch (CoreException e) {
+            LOGGER.error("Unable to find the saved Groovy scripts.", e);
+        }
+        if (!pending.isEmpty()) {
+            job.schedule();
+        }
+    }
+
+    /**
+     * Compile a script into the compiled script cache, and replace its markers by its compilation errors.
+     *
+     * @param file the script file
+     */
+    private void precompile(IFile file) {
+        if (!file.exists()) {
+            return;
+        }
+        String script;
+        try (InputStream in = file.getContents(true)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            script = bytes.toString(file.getCharset());
+        } catch (IOException | CoreException e) {
+            LOGGER.warn("Unable to read the Groovy script '" + file.getName() + "'.", e);
+            return;
+        }
+        if (session == null || !Arrays.equals(session.getClassPaths(), ClassPathHandler.getUrlsInArray())) {
+            // Closing the session also removes the scripts it has compiled from the cache
+            if (session != null) {
+                session.close();
+            }
+            session = new GroovySession(false);
+        }
+        GroovyShell shell = session.getShell();
+        if (shell == null) {
+            return;
+        }
+        CompilationMode mode = CompilationMode.of(ScriptDirectives.parse(script), CompilationMode.DYNAMIC);
+        String key = GroovyScriptCache.key(script, session.getClassPaths(),
+                GroovyJob.compilationKey(session.getConfigurationKey(), mode, false));
+        if (GroovyScriptCache.getInstance().contains(key)) {
+            return;
+        }
+        try {
+            Class<?> scriptClass = GroovyJob.compilationLoader(shell.getClassLoader(), mode, false)
+                    .parseClass(new GroovyCodeSource(script, file.getName(), GroovyShell.DEFAULT_CODE_BASE), false);
+            GroovyScriptCache.getInstance().put(key, scriptClass, script.length());
+            GroovyMarkers.clear(file);
+        } catch (CompilationFailedException e) {
+            GroovyMarkers.report(file, e);
+        }
+    }
+
+    /**
+     * System job compiling the saved scripts.
+     */
+    private class PrecompileJob extends Job {
+
+        private PrecompileJob() {
+            super("Precompile the Groovy scripts");
+            setSystem(true);
+            setPriority(Job.SHORT);
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == FAMILY;
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            while (!pending.isEmpty() && !monitor.isCanceled()) {
+                IFile file = pending.iterator().next();
+                pending.remove(file);
+                try {
+                    precompile(file);
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to precompile the Groovy script '" + file.getName() + "'.", e);
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central scheduler of the groovy scripts of all the editors.
+ *
+ * The scheduled {@link GroovyJob} are registered here. A job waits for a free slot before starting its script, so no
+ * more than {@link #CONCURRENCY} scripts run at the same time, and the waiting jobs get the slots by priority then in
+ * the order of their scheduling. The scripts using the same data source can be serialized with the
+ * {@link #dataSourceRule(String)} scheduling rules, for example for the embedded databases locking their file.
+ *
+ * A job waits for its slot inside its {@link GroovyJob#run} method, so each waiting script holds an Eclipse job worker
+ * thread, idle until the slot is free : scheduling twenty scripts at once keeps twenty workers busy. The job manager
+ * grows its worker pool for the other jobs of the workbench, but the callers scheduling many scripts should rather
+ * schedule them as the previous ones end.
+ *
+ * The priority and the data sources of a script are read from its directives :
+ * <pre>
+ * // @priority high
+ * // @datasource my_h2gis_db
+ * </pre>
+ */
+public class GroovyRunScheduler {
+
+    /**
+     * Maximum number of scripts running at the same time, the size of the {@link GroovyExecutor} running them.
+     */
+    public static final int CONCURRENCY = GroovyExecutor.SIZE;
+
+    /**
+     * Family of all the groovy jobs.
+     */
+    public static final Object FAMILY = GroovyRunScheduler.class;
+
+    public static final String PRIORITY_DIRECTIVE = "priority";
+    public static final String DATASOURCE_DIRECTIVE = "datasource";
+
+    private static final long WAIT_DELAY = 200;
+    private static final GroovyRunScheduler INSTANCE = new GroovyRunScheduler();
+    private static final Map<String, ISchedulingRule> DATA_SOURCE_RULES = new ConcurrentHashMap<>();
+
+    private final List<Entry> entries = new ArrayList<>();
+    private int running = 0;
+    private long sequence = 0;
+
+    public static GroovyRunScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the scheduling rule serializing the scripts using a data source.
+     *
+     * @param dataSource the data source name
+     * @return the rule shared by all the scripts using the data source
+     */
+    public static ISchedulingRule dataSourceRule(String dataSource) {
+        return DATA_SOURCE_RULES.computeIfAbsent(dataSource.toLowerCase(Locale.ROOT), name -> new ISchedulingRule() {
+            @Override
+            public boolean contains(ISchedulingRule rule) {
+                return rule == this;
+            }
+
+            @Override
+            public boolean isConflicting(ISchedulingRule rule) {
+                return rule == this;
+            }
+
+            @Override
+            public String toString() {
+                return "Data source " + name;
+            }
+        });
+    }
+
+    /**
+     * Register a scheduled job.
+     *
+     * @param job the job
+     */
+    synchronized void add(GroovyJob job) {
+        if (find(job) == null) {
+            entries.add(new Entry(job, sequence++));
+        }
+    }
+
+    /**
+     * Unregister a finished job.
+     *
+     * @param job the job
+     */
+    synchronized void remove(GroovyJob job) {
+        Entry entry = find(job);
+        if (entry != null) {
+            entries.remove(entry);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Wait for a free slot. Called by the job before starting its script.
+     *
+     * @param job the job
+     * @param monitor the progress monitor of the job
+     * @return true if the script can start, false if the job has been canceled while waiting
+     */
+    synchronized boolean acquire(GroovyJob job, IProgressMonitor monitor) {
+        add(job);
+        Entry entry = find(job);
+        entry.state = State.WAITING;
+        try {
+            while (running >= CONCURRENCY || !isNext(entry)) {
+                if (monitor.isCanceled()) {
+                    entry.state = State.QUEUED;
+                    return false;
+                }
+                wait(WAIT_DELAY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entry.state = State.QUEUED;
+            return false;
+        }
+        running++;
+        entry.state = State.RUNNING;
+        entry.start = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Free the slot of a job. Called by the job at the end of its script.
+     *
+     * @param job the job
+     */
+    synchronized void release(GroovyJob job) {
+        Entry entry = find(job);
+        if (entry != null && entry.state == State.RUNNING) {
+            running--;
+            entry.state = State.QUEUED;
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return the registered jobs, the running ones first then the waiting ones by priority
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> copy = new ArrayList<>(entries);
+        copy.sort(Comparator.comparing((Entry entry) -> entry.state != State.RUNNING)
+                .thenComparing(Entry::getPriority, Comparator.reverseOrder())
+                .thenComparingLong(entry -> entry.sequence));
+        return copy;
+    }
+
+    /**
+     * Cancel all the queued and running groovy jobs.
+     */
+    public void cancelAll() {
+        Job.getJobManager().cancel(FAMILY);
+    }
+
+    private boolean isNext(Entry entry) {
+        for (Entry other : entries) {
+            if (other != entry && other.state == State.WAITING && (other.getPriority().compareTo(entry.getPriority()) > 0 ||
+                    (other.getPriority() == entry.getPriority() && other.sequence < entry.sequence))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entry find(GroovyJob job) {
+        for (Entry entry : entries) {
+            if (entry.job == job) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Priority of a script, read from the '// @priority' directive.
+     */
+    public enum Priority {
+        LOW(Job.BUILD), NORMAL(Job.LONG), HIGH(Job.INTERACTIVE);
+
+        private final int jobPriority;
+
+        Priority(int jobPriority) {
+            this.jobPriority = jobPriority;
+        }
+
+        /**
+         * @return the corresponding priority of the eclipse jobs
+         */
+        public int getJobPriority() {
+            return jobPriority;
+        }
+
+        /**
+         * @param directives the script directives
+         * @return the priority of the script, NORMAL by default
+         */
+        public static Priority of(ScriptDirectives directives) {
+            String value = directives.get(PRIORITY_DIRECTIVE);
+            if (value != null) {
+                for (Priority priority : values()) {
+                    if (priority.name().equalsIgnoreCase(value)) {
+                        return priority;
+                    }
+                }
+            }
+            return NORMAL;
+        }
+    }
+
+    /**
+     * State of a registered job.
+     */
+    public enum State {
+        /**
+         * Scheduled, possibly waiting for the rules of its session and data sources.
+         */
+        QUEUED,
+        /**
+         * Waiting for a free slot.
+         */
+        WAITING,
+        /**
+         * Running its script.
+         */
+        RUNNING
+    }
+
+    /**
+     * Registered job.
+     */
+    public static class Entry {
+        private final GroovyJob job;
+        private final long sequence;
+        private final long scheduled = System.currentTimeMillis();
+        private volatile State state = State.QUEUED;
+        private volatile long start = 0;
+
+        private Entry(GroovyJob job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+        }
+
+        public GroovyJob getJob() {
+            return job;
+        }
+
+        public Priority getPriority() {
+            return job.getRunPriority();
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return the time in milliseconds since the job is running, or since it is scheduled if it is not running
+         */
+        public long getElapsedTime() {
+            return System.currentTimeMillis() - (state == State.RUNNING ? start : scheduled);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of the compiled script classes, shared by all the groovy editors.
+ * A class is stored under a key built from the script source, the class paths and the compiler configuration, so an
+ * unchanged script run again with the same class paths is not compiled a second time.
+ * The cache is bounded by a number of entries and by a weight which is the length of the cached sources.
+ *
+ * The bounds can be changed with the system properties {@link #MAX_ENTRIES_PROPERTY} and {@link #MAX_WEIGHT_PROPERTY}.
+ */
+public class GroovyScriptCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.orbisgis.groovyeditor.cache.entries";
+    public static final String MAX_WEIGHT_PROPERTY = "org.orbisgis.groovyeditor.cache.weight";
+
+    private static final GroovyScriptCache INSTANCE = new GroovyScriptCache(
+            Integer.getInteger(MAX_ENTRIES_PROPERTY, 64),
+            Long.getLong(MAX_WEIGHT_PROPERTY, 16L * 1024 * 1024));
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxWeight;
+    private long weight = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxEntries maximum number of cached classes
+     * @param maxWeight maximum sum of the lengths of the cached scripts
+     */
+    GroovyScriptCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Get the cache shared by all the groovy jobs.
+     *
+     * @return the shared cache
+     */
+    public static GroovyScriptCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the cache key of a script.
+     *
+     * @param script the script source
+     * @param classPaths the class paths used to compile the script, null for none
+     * @param configuration a description of the compiler configuration
+     * @return the hexadecimal SHA-256 of all the given values
+     */
+    public static String key(String script, URL[] classPaths, String configuration) {
+        URL[] urls = classPaths != null ? classPaths : new URL[0];
+        String[] values = new String[urls.length + 2];
+        values[0] = script;
+        for (int i = 0; i < urls.length; i++) {
+            values[i + 1] = urls[i].toExternalForm();
+        }
+        values[urls.length + 1] = configuration;
+        return Sha256.hex(values);
+    }
+
+    /**
+     * Get the class compiled for the given key and count a hit or a miss.
+     *
+     * @param key the script key
+     * @return the compiled class or null if it is not cached
+     */
+    public synchronized Class<?> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.scriptClass;
+    }
+
+    /**
+     * Check if a class is compiled for the given key, without counting a hit or a miss nor changing the eviction order.
+     *
+     * @param key the script key
+     * @return true if the compiled class is cached
+     */
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Cache a compiled class and evict the least recently used ones until the cache fits its bounds again.
+     *
+     * @param key the script key
+     * @param scriptClass the compiled class
+     * @param entryWeight the weight of the entry, usually the script length
+     */
+    public synchronized void put(String key, Class<?> scriptClass, long entryWeight) {
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(scriptClass, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || weight > maxWeight)) {
+            weight -= it.next().weight;
+            it.remove();
+        }
+    }
+
+    /**
+     * Remove the classes compiled by a class loader or by its children, before the class loader is closed.
+     *
+     * @param loader the class loader
+     */
+    public synchronized void removeLoadedBy(ClassLoader loader) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            for (ClassLoader current = entry.scriptClass.getClassLoader(); current != null;
+                 current = current.getParent()) {
+                if (current == loader) {
+                    weight -= entry.weight;
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all the cached classes.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static class Entry {
+        private final Class<?> scriptClass;
+        private final long weight;
+
+        private Entry(Class<?> scriptClass, long weight) {
+            this.scriptClass = scriptClass;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import groovy.transform.ThreadInterrupt;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.checkpoint.CheckpointCustomizer;
+import org.orbisgis.ui.editors.groovy.logger.GroovyLogger;
+import org.orbisgis.ui.editors.groovy.memo.MemoizeCustomizer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of the binding, the class loader and the shell used to execute groovy scripts.
+ *
+ * A job executed without session gets its own temporary session. An editor in session mode keeps the same session
+ * between executions, so the variables, the loaded classes and the open connections are kept like in a notebook.
+ * The session is also the scheduling rule of its jobs, so two executions never share the binding at the same time.
+ */
+public class GroovySession implements ISchedulingRule {
+
+    private static final Logger LOGGER = new Logger(GroovySession.class);
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private final int id = COUNT.incrementAndGet();
+    private final boolean persistent;
+    private Binding binding;
+    private URLClassLoader classLoader;
+    private GroovyShell shell;
+    private URL[] classPaths;
+    private final URL[] fixedClassPaths;
+    private String configurationKey;
+    private int executionCount = 0;
+
+    /**
+     * Create a session.
+     *
+     * @param persistent true if the session is kept between executions
+     */
+    public GroovySession(boolean persistent) {
+        this(persistent, null);
+    }
+
+    /**
+     * Create a session with fixed class paths, for example outside of the workbench.
+     *
+     * @param persistent true if the session is kept between executions
+     * @param classPaths the class paths of the session, or null to use the class paths of the {@link ClassPathHandler}
+     */
+    public GroovySession(boolean persistent, URL[] classPaths) {
+        this.persistent = persistent;
+        this.fixedClassPaths = classPaths;
+        binding = createBinding();
+        createShell();
+    }
+
+    private static Binding createBinding() {
+        Binding binding = new Binding();
+        binding.setProperty("logger", new GroovyLogger(GroovyShell.class));
+        binding.setProperty("out", new StringWriter());
+        return binding;
+    }
+
+    /**
+     * Create the compiler configuration of the scripts, which can be interrupted through {@link ThreadInterrupt}, can
+     * memoize their methods with {@link org.orbisgis.ui.editors.groovy.memo.DiskMemoized} and give the source of their
+     * checkpoint stages through the {@link CheckpointCustomizer}.
+     *
+     * @return a new compiler configuration
+     */
+    public static CompilerConfiguration createConfiguration() {
+        CompilerConfiguration configuratorConfig = new CompilerConfiguration(System.getProperties());
+        configuratorConfig.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class),
+                new CheckpointCustomizer());
+        return MemoizeCustomizer.configure(configuratorConfig);
+    }
+
+    private void createShell() {
+        CompilerConfiguration configuratorConfig = createConfiguration();
+        configurationKey = describe(configuratorConfig) + ThreadInterrupt.class.getName() + ";" +
+                MemoizeCustomizer.class.getName() + ";" + CheckpointCustomizer.class.getName();
+        // Classes defined by a script are only visible from the class loader of the session, so a persistent session
+        // does not share the compiled script cache entries of the other sessions or of its previous class loaders.
+        if (persistent) {
+            configurationKey += ";session " + COUNT.incrementAndGet();
+        }
+
+        try {
+            classPaths = fixedClassPaths != null ? fixedClassPaths : ClassPathHandler.getUrlsInArray();
+            classLoader = new URLClassLoader(classPaths, Thread.currentThread().getContextClassLoader());
+            shell = new GroovyShell(classLoader, binding, configuratorConfig);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to create GroovyShell instead.");
+        }
+    }
+
+    /**
+     * Describe the compiler options which change the generated bytecode, to be used in the compiled script cache key.
+     *
+     * @param configuration the compiler configuration
+     * @return a description of the configuration
+     */
+    private static String describe(CompilerConfiguration configuration) {
+        return configuration.getTargetBytecode() + ";" + configuration.getSourceEncoding() + ";" +
+                configuration.getScriptBaseClass() + ";" + configuration.getOptimizationOptions() + ";";
+    }
+
+    /**
+     * Remove all the variables of the session, closing the ones which are closeable like the sql connections. The
+     * class loader and the classes loaded by the previous executions are kept.
+     */
+    public synchronized void reset() {
+        closeVariables();
+        binding = createBinding();
+        executionCount = 0;
+    }
+
+    /**
+     * Replace the variables of the session, for example by the variables of a previous state. The current variables
+     * which are not kept are closed when they are closeable.
+     *
+     * @param variables the new variables of the session
+     */
+    public synchronized void restore(Map<String, ?> variables) {
+        Set<Object> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(variables.values());
+        closeVariables(kept);
+        binding = createBinding();
+        variables.forEach(binding::setVariable);
+    }
+
+    /**
+     * Reset the variables and create a new class loader, taking into account the current class paths.
+     */
+    public synchronized void restart() {
+        close();
+        binding = createBinding();
+        createShell();
+        executionCount = 0;
+    }
+
+    /**
+     * Close the variables and the class loader of the session. The scripts compiled for the session are removed from
+     * the {@link GroovyScriptCache} first, as they could not load the classes of the closed loader anymore.
+     */
+    public synchronized void close() {
+        closeVariables();
+        if (classLoader != null) {
+            GroovyScriptCache.getInstance().removeLoadedBy(classLoader);
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to close the Groovy session class loader.", e);
+            }
+        }
+        classLoader = null;
+        shell = null;
+    }
+
+    private void closeVariables() {
+        closeVariables(Collections.emptySet());
+    }
+
+    private void closeVariables(Set<Object> kept) {
+        for (Object value : getVariables().values()) {
+            if (value instanceof AutoCloseable && !kept.contains(value)) {
+                try {
+                    ((AutoCloseable) value).close();
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to close the Groovy session variable.", e);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getVariables() {
+        return (Map<String, Object>) binding.getVariables();
+    }
+
+    /**
+     * Describe the content and the memory use of the session.
+     *
+     * @return the description of the session
+     */
+    public synchronized String getMemoryReadout() {
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        long maxMb = runtime.maxMemory() / (1024 * 1024);
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : getVariables().entrySet()) {
+            Object value = entry.getValue();
+            names.add(entry.getKey() + " : " + (value == null ? "null" : value.getClass().getSimpleName()));
+        }
+        int loadedClasses = shell == null ? 0 : shell.getClassLoader().getLoadedClasses().length;
+        return "Groovy session " + id + "\n" +
+                "Executions : " + executionCount + "\n" +
+                "Loaded classes : " + loadedClasses + "\n" +
+                "Variables : " + String.join(", ", names) + "\n" +
+                "JVM heap : " + usedMb + " MB used / " + maxMb + " MB max\n";
+    }
+
+    /**
+     * Count a new execution in the session.
+     */
+    synchronized void executionStarted() {
+        executionCount++;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public synchronized Binding getBinding() {
+        return binding;
+    }
+
+    public synchronized GroovyShell getShell() {
+        return shell;
+    }
+
+    public synchronized URL[] getClassPaths() {
+        return classPaths;
+    }
+
+    public synchronized String getConfigurationKey() {
+        return configurationKey;
+    }
+
+    @Override
+    public boolean contains(ISchedulingRule rule) {
+        return rule == this;
+    }
+
+    @Override
+    public boolean isConflicting(ISchedulingRule rule) {
+        return rule == this;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.orbisgis.core.logger.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of temporary {@link GroovySession} built and warmed in background, so the creation of the compiler
+ * configuration, the class loader and the shell, and the loading of the groovy compiler classes, are not paid when a
+ * script is executed.
+ *
+ * The number of warm sessions is set with the system property {@link #SIZE_PROPERTY}.
+ */
+public class GroovySessionPool {
+
+    private static final Logger LOGGER = new Logger(GroovySessionPool.class);
+
+    public static final String SIZE_PROPERTY = "org.orbisgis.groovyeditor.session.pool";
+
+    private static final int SIZE = Integer.getInteger(SIZE_PROPERTY, 2);
+    private static final String WARM_UP_SCRIPT = "def warmUp = [1, 2].collect { it * 2 }.sum()";
+
+    private static final ConcurrentLinkedQueue<GroovySession> SESSIONS = new ConcurrentLinkedQueue<>();
+    private static final WarmUpJob WARM_UP_JOB = new WarmUpJob();
+
+    /**
+     * Take a warm temporary session, or create one if none is available for the current class paths, then start
+     * refilling the pool in background.
+     *
+     * @return a temporary session
+     */
+    public static GroovySession take() {
+        GroovySession session;
+        while ((session = SESSIONS.poll()) != null) {
+            if (Arrays.equals(session.getClassPaths(), ClassPathHandler.getUrlsInArray())) {
+                break;
+            }
+            // Session created with the previous class paths
+            session.close();
+        }
+        warmUp();
+        return session != null ? session : new GroovySession(false);
+    }
+
+    /**
+     * Start filling the pool in background if it is not full.
+     */
+    public static void warmUp() {
+        if (SESSIONS.size() < SIZE) {
+            WARM_UP_JOB.schedule();
+        }
+    }
+
+    /**
+     * Remove and close all the warm sessions.
+     */
+    public static void clear() {
+        WARM_UP_JOB.cancel();
+        GroovySession session;
+        while ((session = SESSIONS.poll()) != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * Create a session and compile a trivial script with it, which loads the classes of the compiler.
+     *
+     * @return the warm session
+     */
+    private static GroovySession createWarmSession() {
+        GroovySession session = new GroovySession(false);
+        GroovyShell shell = session.getShell();
+        if (shell != null) {
+            shell.getClassLoader().parseClass(new GroovyCodeSource(WARM_UP_SCRIPT, "WarmUp", GroovyShell.DEFAULT_CODE_BASE), false);
+            shell.getClassLoader().clearCache();
+        }
+        return session;
+    }
+
+    /**
+     * System job filling the pool.
+     */
+    private static class WarmUpJob extends Job {
+
+        private WarmUpJob() {
+            super("Warm up the Groovy shells");
+            setSystem(true);
+            setPriority(Job.DECORATE);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            while (SESSIONS.size() < SIZE && !monitor.isCanceled()) {
+                try {
+                    SESSIONS.add(createWarmSession());
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to warm up a Groovy shell.", e);
+                    return Status.OK_STATUS;
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directives written in the comment lines at the top of a script, like :
+ * <pre>
+ * // @compile static
+ * // @priority high
+ * </pre>
+ * The directives are read until the first line which is neither empty nor a line comment. A directive without value
+ * has an empty value, and a directive can be repeated.
+ */
+public class ScriptDirectives {
+
+    private final Map<String, List<String>> directives;
+
+    private ScriptDirectives(Map<String, List<String>> directives) {
+        this.directives = directives;
+    }
+
+    /**
+     * Read the directives of a script.
+     *
+     * @param script the script source
+     * @return the directives
+     */
+    public static ScriptDirectives parse(String script) {
+        Map<String, List<String>> directives = new LinkedHashMap<>();
+        for (String line : script.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#!")) {
+                continue;
+            }
+            if (!trimmed.startsWith("//")) {
+                break;
+            }
+            String comment = trimmed.substring(2).trim();
+            if (comment.startsWith("@") && comment.length() > 1) {
+                int space = comment.indexOf(' ');
+                String name = space < 0 ? comment.substring(1) : comment.substring(1, space);
+                String value = space < 0 ? "" : comment.substring(space + 1).trim();
+                directives.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+        }
+        return new ScriptDirectives(directives);
+    }
+
+    /**
+     * @param name the directive name, without '@'
+     * @return true if the script has the directive
+     */
+    public boolean has(String name) {
+        return directives.containsKey(name);
+    }
+
+    /**
+     * @param name the directive name, without '@'
+     * @return the value of the first occurrence of the directive, or null if the script does not have it
+     */
+    public String get(String name) {
+        List<String> values = directives.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    /**
+     * @param name the directive name, without '@'
+     * @return the values of all the occurrences of the directive
+     */
+    public List<String> getAll(String name) {
+        return directives.getOrDefault(name, Collections.emptyList());
+    }
+}
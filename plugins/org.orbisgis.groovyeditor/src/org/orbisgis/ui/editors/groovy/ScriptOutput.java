@@ -0,0 +1,53 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+/**
+ * Destination of the output of a {@link GroovyJob} : the groovy output console in the workbench, files for the batch
+ * runner.
+ */
+public interface ScriptOutput {
+
+    /**
+     * Called when the script starts.
+     *
+     * @param name the script name
+     */
+    void begin(String name);
+
+    /**
+     * Write a part of the script output.
+     *
+     * @param text the text written by the script
+     */
+    void write(String text);
+
+    /**
+     * Called when the script ends.
+     *
+     * @param success true if the script ended without error
+     * @param error the stack trace of the error, or null
+     */
+    void end(boolean success, String error);
+
+    /**
+     * Wait until all the previous writes are done.
+     */
+    void flush();
+}
@@ -0,0 +1,213 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a script, available in the binding as the {@code progress} variable :
+ * <pre>
+ * progress.begin("Loading the roads", count)
+ * rows.each { row ->
+ *     ...
+ *     progress.tick()
+ * }
+ * </pre>
+ * The script only updates counters, which are read by the job every half second to update the progress bar, the
+ * throughput and the estimated remaining time, so the calls cost nothing measurable even in tight loops.
+ *
+ * {@link #tick()} is meant for the script thread, its plain counter being read by the job without synchronization,
+ * while {@link #worked(long)} can be called from any thread. This class only uses the JDK, so it is also available in the
+ * worker JVMs, where the progress is not displayed.
+ */
+public class ScriptProgress {
+
+    /**
+     * Number of ticks of the progress bar.
+     */
+    static final int SCALE = 1000;
+
+    /**
+     * Delay in nanoseconds without progress after which the progress is reported as stalled.
+     */
+    static final long STALL_DELAY = 30_000_000_000L;
+
+    // Only written by the script thread, a stale read by the job is corrected at its next sample
+    private long ticks = 0;
+    private final AtomicLong worked = new AtomicLong();
+    private volatile long total = 0;
+    private volatile String task = null;
+    private volatile String subtask = null;
+    private volatile String unit = "rows";
+    private volatile int phase = 0;
+
+    // State of the reporting, only used by the job thread
+    private int reportedPhase = 0;
+    private int reported = 0;
+    private int phaseBase = 0;
+    private long lastTime = 0;
+    private long lastDone = 0;
+    private long lastChange = 0;
+    private double rate = -1;
+
+    /**
+     * Start a task. The progress of the previous task is kept on the progress bar, and the new task fills its
+     * remaining part.
+     *
+     * @param task the name of the task
+     * @param total the amount of work of the task, or 0 if unknown
+     */
+    public void begin(String task, long total) {
+        this.task = task;
+        ticks = 0;
+        worked.set(0);
+        subtask = null;
+        this.total = Math.max(0, total);
+        phase++;
+    }
+
+    /**
+     * Start a task without name.
+     *
+     * @param total the amount of work of the task, or 0 if unknown
+     */
+    public void begin(long total) {
+        begin(null, total);
+    }
+
+    /**
+     * @param amount the amount of work done since the last call
+     */
+    public void worked(long amount) {
+        worked.addAndGet(amount);
+    }
+
+    /**
+     * Count one unit of work, for example one row. Only for the script thread.
+     */
+    public void tick() {
+        ticks++;
+    }
+
+    /**
+     * @param name the name of the current step of the task
+     */
+    public void subtask(String name) {
+        subtask = name;
+    }
+
+    /**
+     * @param unit the name of the unit of work, 'rows' by default
+     */
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * @return the amount of work done in the current task, as seen by the job
+     */
+    public long getDone() {
+        return worked.get() + ticks;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the progress to add to the progress bar since the previous call, the current task filling the part of the
+     * bar left by the previous tasks. Called by the job thread after {@link #sample(long)}.
+     *
+     * @return the number of ticks to add, out of {@value #SCALE}
+     */
+    int advance() {
+        long currentTotal = total;
+        if (currentTotal <= 0) {
+            return 0;
+        }
+        int target = phaseBase + (int) ((SCALE - phaseBase) * Math.min(1d, (double) lastDone / currentTotal));
+        int delta = Math.max(0, target - reported);
+        reported += delta;
+        return delta;
+    }
+
+    /**
+     * Update the throughput and describe the progress.
+     *
+     * @param now the current time in nanoseconds
+     * @return the description of the progress, or null if the script does not report its progress
+     */
+    String sample(long now) {
+        int currentPhase = phase;
+        long done = getDone();
+        long currentTotal = total;
+        if (currentPhase != reportedPhase) {
+            reportedPhase = currentPhase;
+            phaseBase = reported;
+            rate = -1;
+            lastTime = now;
+            lastDone = 0;
+            lastChange = now;
+        }
+        if (currentPhase == 0 && done == 0) {
+            return null;
+        }
+        if (now > lastTime) {
+            double instant = (done - lastDone) * 1e9 / (now - lastTime);
+            // Smoothed so the estimation does not jump with each sample
+            rate = rate < 0 ? instant : 0.7 * rate + 0.3 * instant;
+        }
+        if (done != lastDone) {
+            lastChange = now;
+        }
+        lastTime = now;
+        lastDone = done;
+
+        StringBuilder sb = new StringBuilder();
+        String currentTask = task;
+        if (currentTask != null) {
+            sb.append(currentTask).append(" : ");
+        }
+        String currentSubtask = subtask;
+        if (currentSubtask != null) {
+            sb.append(currentSubtask).append(", ");
+        }
+        sb.append(String.format(Locale.ROOT, "%,d", done));
+        if (currentTotal > 0) {
+            sb.append(String.format(Locale.ROOT, " / %,d %s (%.1f%%)", currentTotal, unit,
+                    100d * Math.min(done, currentTotal) / currentTotal));
+        } else {
+            sb.append(' ').append(unit);
+        }
+        if (rate >= 0) {
+            sb.append(String.format(Locale.ROOT, ", %,.0f %s/s", rate, unit));
+        }
+        if (now - lastChange >= STALL_DELAY) {
+            sb.append(String.format(Locale.ROOT, ", no progress for %d s", (now - lastChange) / 1_000_000_000L));
+        } else if (currentTotal > done && rate > 0) {
+            sb.append(", ETA ").append(duration((long) ((currentTotal - done) / rate)));
+        }
+        return sb.toString();
+    }
+
+    private static String duration(long seconds) {
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.orbisgis.core.logger.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measure of the CPU time and of the heap allocation of the threads executing a script, through the
+ * {@link ThreadMXBean}. The executor threads are reused, so only the difference between the registration and the
+ * unregistration of a thread is counted.
+ *
+ * The script thread, the threads of the fan-outs and the background threads of the batch writers are registered. The
+ * threads started by the script itself are not counted.
+ *
+ * The allocation is read with the HotSpot extension of the bean, which is looked up by reflection as it is not part of
+ * the Java SE API. If it is not available, the allocation stays 0.
+ */
+public class ScriptResourceMeter {
+
+    private static final Logger LOGGER = new Logger(ScriptResourceMeter.class);
+
+    public static final String SOFT_ALLOCATION_PROPERTY = "org.orbisgis.groovyeditor.quota.allocation.soft";
+    public static final String HARD_ALLOCATION_PROPERTY = "org.orbisgis.groovyeditor.quota.allocation.hard";
+    public static final String SOFT_CPU_PROPERTY = "org.orbisgis.groovyeditor.quota.cpu.soft";
+    public static final String HARD_CPU_PROPERTY = "org.orbisgis.groovyeditor.quota.cpu.hard";
+
+    /**
+     * Allocation in bytes after which a warning is written into the console, 0 for no limit.
+     */
+    public static final long SOFT_ALLOCATION = Long.getLong(SOFT_ALLOCATION_PROPERTY, 0);
+    /**
+     * Allocation in bytes after which the script is interrupted, 0 for no limit.
+     */
+    public static final long HARD_ALLOCATION = Long.getLong(HARD_ALLOCATION_PROPERTY, 0);
+    /**
+     * CPU time in milliseconds after which a warning is written into the console, 0 for no limit.
+     */
+    public static final long SOFT_CPU = Long.getLong(SOFT_CPU_PROPERTY, 0);
+    /**
+     * CPU time in milliseconds after which the script is interrupted, 0 for no limit.
+     */
+    public static final long HARD_CPU = Long.getLong(HARD_CPU_PROPERTY, 0);
+
+    private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+    private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+    private static final InheritableThreadLocal<ScriptResourceMeter> CURRENT = new InheritableThreadLocal<>();
+
+    private final Map<Long, long[]> baselines = new ConcurrentHashMap<>();
+    private final AtomicLong finishedCpu = new AtomicLong();
+    private final AtomicLong finishedAllocation = new AtomicLong();
+    private final long start = System.nanoTime();
+
+    private static Method allocatedBytesMethod() {
+        try {
+            if (BEAN.isThreadCpuTimeSupported() && !BEAN.isThreadCpuTimeEnabled()) {
+                BEAN.setThreadCpuTimeEnabled(true);
+            }
+            for (Class<?> type : BEAN.getClass().getInterfaces()) {
+                if (type.getName().equals("com.sun.management.ThreadMXBean")) {
+                    return type.getMethod("getThreadAllocatedBytes", long.class);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("The heap allocation of the Groovy scripts cannot be measured.", e);
+        }
+        return null;
+    }
+
+    /**
+     * @return the meter of the script executed by the current thread or by the thread which created it, or null. The
+     * script helpers read it from the script thread to register their own threads
+     */
+    public static ScriptResourceMeter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Start counting the resources used by a thread of the script. Called by the thread itself.
+     */
+    public void register() {
+        Thread thread = Thread.currentThread();
+        CURRENT.set(this);
+        baselines.put(thread.getId(), new long[]{cpuTime(thread.getId()), allocatedBytes(thread.getId())});
+    }
+
+    /**
+     * Stop counting the resources used by a thread of the script. Called by the thread itself.
+     */
+    public void unregister() {
+        long id = Thread.currentThread().getId();
+        long[] baseline = baselines.remove(id);
+        if (baseline != null) {
+            finishedCpu.addAndGet(Math.max(0, cpuTime(id) - baseline[0]));
+            finishedAllocation.addAndGet(Math.max(0, allocatedBytes(id) - baseline[1]));
+        }
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the CPU time used by the threads of the script in nanoseconds
+     */
+    public long getCpuTime() {
+        long total = finishedCpu.get();
+        for (Map.Entry<Long, long[]> entry : baselines.entrySet()) {
+            total += Math.max(0, cpuTime(entry.getKey()) - entry.getValue()[0]);
+        }
+        return total;
+    }
+
+    /**
+     * @return the bytes allocated on the heap by the threads of the script
+     */
+    public long getAllocatedBytes() {
+        long total = finishedAllocation.get();
+        for (Map.Entry<Long, long[]> entry : baselines.entrySet()) {
+            total += Math.max(0, allocatedBytes(entry.getKey()) - entry.getValue()[1]);
+        }
+        return total;
+    }
+
+    /**
+     * @return the time elapsed since the creation of the meter in nanoseconds
+     */
+    public long getWallTime() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Check the limits of the script.
+     *
+     * @param allocationLimit maximum allocation in bytes, 0 for no limit
+     * @param cpuLimit maximum CPU time in milliseconds, 0 for no limit
+     * @return the description of the exceeded limit, or null if the limits are respected
+     */
+    public String exceeded(long allocationLimit, long cpuLimit) {
+        if (allocationLimit > 0 && getAllocatedBytes() > allocationLimit) {
+            return "allocation above " + bytes(allocationLimit);
+        }
+        if (cpuLimit > 0 && getCpuTime() > cpuLimit * 1_000_000) {
+            return "CPU time above " + seconds(cpuLimit * 1_000_000);
+        }
+        return null;
+    }
+
+    /**
+     * @return the description of the used resources
+     */
+    public String describe() {
+        return "allocated " + bytes(getAllocatedBytes()) + ", CPU " + seconds(getCpuTime()) + ", wall " +
+                seconds(getWallTime());
+    }
+
+    private static long cpuTime(long threadId) {
+        return BEAN.isThreadCpuTimeEnabled() ? Math.max(0, BEAN.getThreadCpuTime(threadId)) : 0;
+    }
+
+    private static long allocatedBytes(long threadId) {
+        if (ALLOCATED_BYTES == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, (Long) ALLOCATED_BYTES.invoke(BEAN, threadId));
+        } catch (ReflectiveOperationException e) {
+            return 0;
+        }
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes >= 1L << 30) {
+            return String.format("%.2f GB", bytes / (double) (1L << 30));
+        }
+        return String.format("%.1f MB", bytes / (double) (1L << 20));
+    }
+
+    private static String seconds(long nanos) {
+        return String.format("%.2f s", nanos / 1e9);
+    }
+}
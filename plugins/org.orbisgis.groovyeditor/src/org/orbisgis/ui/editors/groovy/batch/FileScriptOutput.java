@@ -0,0 +1,87 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.batch;
+
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.ScriptOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Output of a script into a file, used by the batch runner.
+ */
+public class FileScriptOutput implements ScriptOutput, Closeable {
+
+    private static final Logger LOGGER = new Logger(FileScriptOutput.class);
+
+    private final Path file;
+    private final Writer writer;
+
+    /**
+     * Create the output file, replacing the previous one.
+     *
+     * @param file the output file
+     * @throws IOException if the file cannot be created
+     */
+    public FileScriptOutput(Path file) throws IOException {
+        this.file = file;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void begin(String name) {
+        write(name + "\n\n");
+    }
+
+    @Override
+    public synchronized void write(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            LOGGER.error("Unable to write the Groovy output into '" + file + "'.", e);
+        }
+    }
+
+    @Override
+    public void end(boolean success, String error) {
+        if (error != null) {
+            write(error);
+        }
+        write(success ? "\nGroovy script successfully executed.\n" : "\nError while execution the Groovy script.\n");
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.error("Unable to write the Groovy output into '" + file + "'.", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
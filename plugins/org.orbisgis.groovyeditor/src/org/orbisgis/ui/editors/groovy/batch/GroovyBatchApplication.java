@@ -0,0 +1,222 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.batch;
+
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.GroovyExecutor;
+import org.orbisgis.ui.editors.groovy.GroovyJob;
+import org.orbisgis.ui.editors.groovy.GroovyRunScheduler;
+import org.orbisgis.ui.editors.groovy.GroovySession;
+import org.orbisgis.ui.editors.groovy.GroovyUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Headless application running groovy scripts with the same engine as the editor, for example on a build server :
+ * <pre>
+ * dbeaver -nosplash -application org.orbisgis.groovyeditor.batch [-classpath file] [-output folder] [-workers n]
+ *         [script or folder...]
+ * </pre>
+ * <ul>
+ *     <li>-classpath : file listing the jars and folders of the class path, one per line, '#' starting a comment</li>
+ *     <li>-output : folder receiving the output of each script in a '.log' file named after the script, with a
+ *     number suffix for the scripts of the same name in different folders, 'groovy-output' by default</li>
+ *     <li>-workers : number of scripts run at the same time, the number of processors by default</li>
+ * </ul>
+ * The scripts of a folder are run in the alphabetical order, and the groovy folder of the workspace is used if no
+ * script is given. The run is also limited by the concurrency of the scheduler, see
+ * {@link GroovyExecutor#SIZE_PROPERTY}.
+ *
+ * The exit code is 0 if all the scripts succeed, 1 if a script fails and 2 if the arguments are wrong.
+ */
+public class GroovyBatchApplication implements IApplication {
+
+    private static final Logger LOGGER = new Logger(GroovyBatchApplication.class);
+
+    public static final Integer EXIT_FAILURE = 1;
+    public static final Integer EXIT_USAGE = 2;
+
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+        URL[] classPaths = new URL[0];
+        Path output = Paths.get("groovy-output");
+        int workers = Runtime.getRuntime().availableProcessors();
+        List<Path> scripts = new ArrayList<>();
+        try {
+            for (int i = 0; args != null && i < args.length; i++) {
+                switch (args[i]) {
+                    case "-classpath":
+                        classPaths = readClassPath(Paths.get(args[++i]));
+                        break;
+                    case "-output":
+                        output = Paths.get(args[++i]);
+                        break;
+                    case "-workers":
+                        workers = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        scripts.addAll(findScripts(Paths.get(args[i])));
+                        break;
+                }
+            }
+            if (scripts.isEmpty()) {
+                scripts.addAll(findScripts(GroovyUtils.getGroovyFolder().getLocation().toFile().toPath()));
+            }
+            Files.createDirectories(output);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Wrong arguments of the Groovy batch runner.", e);
+            return EXIT_USAGE;
+        }
+        if (scripts.isEmpty()) {
+            LOGGER.error("No Groovy script to run.");
+            return EXIT_USAGE;
+        }
+        return run(scripts, classPaths, output, workers) ? EXIT_OK : EXIT_FAILURE;
+    }
+
+    /**
+     * Run the scripts, at most the given number at the same time, and write a summary on the standard output.
+     *
+     * @return true if all the scripts succeed
+     */
+    private boolean run(List<Path> scripts, URL[] classPaths, Path output, int workers) throws InterruptedException {
+        Semaphore slots = new Semaphore(workers);
+        CountDownLatch finished = new CountDownLatch(scripts.size());
+        AtomicInteger failures = new AtomicInteger();
+        Set<String> names = new HashSet<>();
+        long start = System.nanoTime();
+        for (Path path : scripts) {
+            slots.acquire();
+            String name = uniqueName(names, path.getFileName().toString());
+            FileScriptOutput scriptOutput;
+            GroovySession session;
+            GroovyJob job;
+            try {
+                String script = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+                scriptOutput = new FileScriptOutput(output.resolve(name + ".log"));
+                session = new GroovySession(false, classPaths);
+                job = new GroovyJob(name, script, session);
+            } catch (IOException e) {
+                LOGGER.error("Unable to run the Groovy script '" + path + "'.", e);
+                System.out.println("FAILED " + name + " : " + e.getMessage());
+                failures.incrementAndGet();
+                finished.countDown();
+                slots.release();
+                continue;
+            }
+            job.setScriptOutput(scriptOutput);
+            job.addJobChangeListener(new JobChangeAdapter() {
+                @Override
+                public void done(IJobChangeEvent event) {
+                    try {
+                        scriptOutput.close();
+                    } catch (IOException e) {
+                        LOGGER.error("Unable to close the output of '" + name + "'.", e);
+                    }
+                    session.close();
+                    if (!job.isSucceeded()) {
+                        failures.incrementAndGet();
+                    }
+                    System.out.println((job.isSucceeded() ? "OK     " : "FAILED ") + name + " : " +
+                            event.getResult().getMessage());
+                    finished.countDown();
+                    slots.release();
+                }
+            });
+            job.schedule();
+        }
+        finished.await();
+        System.out.printf("%d scripts, %d failed, %.2f s%n", scripts.size(), failures.get(),
+                (System.nanoTime() - start) / 1e9);
+        return failures.get() == 0;
+    }
+
+    /**
+     * @param names the names already given to the scripts, receiving the new name
+     * @param fileName the file name of a script
+     * @return the file name, followed by a number if another script already has it
+     */
+    private static String uniqueName(Set<String> names, String fileName) {
+        String name = fileName;
+        for (int i = 2; !names.add(name); i++) {
+            name = fileName + "-" + i;
+        }
+        return name;
+    }
+
+    /**
+     * Read the class path file.
+     *
+     * @param file file listing the jars and folders, one per line
+     * @return the urls of the class path
+     */
+    private static URL[] readClassPath(Path file) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String entry = line.trim();
+            if (!entry.isEmpty() && !entry.startsWith("#")) {
+                urls.add(new File(entry).toURI().toURL());
+            }
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    /**
+     * @param path a script or a folder
+     * @return the script or the groovy scripts of the folder in alphabetical order
+     */
+    private static List<Path> findScripts(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            List<Path> scripts = new ArrayList<>();
+            scripts.add(path);
+            return scripts;
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("." + GroovyUtils.SCRIPT_FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public void stop() {
+        Job.getJobManager().cancel(GroovyRunScheduler.FAMILY);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.cells;
+
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Results of the cells executed in an editor, by cell key : the output of the cell and the variables it has assigned or
+ * removed, so the cell can be skipped while its key does not change.
+ *
+ * The variables are kept by reference : an object modified in place by a later cell is not restored.
+ *
+ * The cache is also the scheduling rule of the {@link CellJob}, so the cells of an editor are never executed twice at
+ * the same time.
+ */
+public class CellCache implements ISchedulingRule {
+
+    private final Map<String, CellResult> results = new HashMap<>();
+
+    /**
+     * @param key the cell key
+     * @return the result of the cell, or null if the cell has not been executed with this key
+     */
+    public synchronized CellResult get(String key) {
+        return results.get(key);
+    }
+
+    public synchronized void put(String key, CellResult result) {
+        results.put(key, result);
+    }
+
+    /**
+     * Remove the results of the cells which are no longer in the script.
+     *
+     * @param keys the keys of the current cells
+     */
+    public synchronized void retain(Collection<String> keys) {
+        results.keySet().retainAll(new HashSet<>(keys));
+    }
+
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    @Override
+    public boolean contains(ISchedulingRule rule) {
+        return rule == this;
+    }
+
+    @Override
+    public boolean isConflicting(ISchedulingRule rule) {
+        return rule == this;
+    }
+
+    /**
+     * Result of the execution of a cell.
+     */
+    public static class CellResult {
+        private final Map<String, Object> assigned;
+        private final Set<String> removed;
+        private final String output;
+        private final long runTime;
+
+        /**
+         * Create the result of a cell by comparing the variables before and after its execution.
+         *
+         * @param before the variables before the execution
+         * @param after the variables after the execution
+         * @param ignored the variables set by the execution itself, which are not part of the result
+         * @param output the output of the cell
+         * @param runTime the execution time of the cell in nanoseconds
+         */
+        public CellResult(Map<String, ?> before, Map<String, ?> after, Set<String> ignored, String output,
+                          long runTime) {
+            Map<String, Object> assigned = new LinkedHashMap<>();
+            for (Map.Entry<String, ?> entry : after.entrySet()) {
+                if (!ignored.contains(entry.getKey()) &&
+                        (!before.containsKey(entry.getKey()) || before.get(entry.getKey()) != entry.getValue())) {
+                    assigned.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Set<String> removed = new HashSet<>(before.keySet());
+            removed.removeAll(after.keySet());
+            removed.removeAll(ignored);
+            this.assigned = Collections.unmodifiableMap(assigned);
+            this.removed = Collections.unmodifiableSet(removed);
+            this.output = output;
+            this.runTime = runTime;
+        }
+
+        /**
+         * Apply the changes of the cell to the variables.
+         *
+         * @param variables the variables before the cell
+         */
+        public void apply(Map<String, Object> variables) {
+            variables.putAll(assigned);
+            variables.keySet().removeAll(removed);
+        }
+
+        public Map<String, Object> getAssigned() {
+            return assigned;
+        }
+
+        public Set<String> getRemoved() {
+            return removed;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        public long getRunTime() {
+            return runTime;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.cells;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.CompilationMode;
+import org.orbisgis.ui.editors.groovy.ConsoleScriptOutput;
+import org.orbisgis.ui.editors.groovy.GroovyJob;
+import org.orbisgis.ui.editors.groovy.GroovySession;
+import org.orbisgis.ui.editors.groovy.ScriptOutput;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Job executing the cells of a script incrementally : the first cells whose key is in the cache are not executed, their
+ * variables are restored from the cache and their output is written again, then the following cells are executed one
+ * by one in the session, and their results are cached.
+ */
+public class CellJob extends Job {
+
+    private static final Logger LOGGER = new Logger(CellJob.class);
+
+    /**
+     * Variables set by the job executing a cell, which are not part of the cell results.
+     */
+    private static final Set<String> IGNORED_VARIABLES = new HashSet<>(Arrays.asList("out", "args", "progress",
+            "checkpoint", "datasources", "batch", "cursor", "frame"));
+
+    private final String name;
+    private final String script;
+    private final GroovySession session;
+    private final CellCache cache;
+    private final CompilationMode compilationMode;
+    private final ScriptOutput console = ConsoleScriptOutput.INSTANCE;
+    private IResource resource = null;
+    private Object owner = null;
+
+    /**
+     * Create the job.
+     *
+     * @param name the name of the script
+     * @param script the script source
+     * @param session the persistent session of the cells
+     * @param cache the results of the cells previously executed in the session
+     * @param compilationMode the compilation mode of the cells
+     */
+    public CellJob(String name, String script, GroovySession session, CellCache cache,
+                   CompilationMode compilationMode) {
+        super(name);
+        this.name = name;
+        this.script = script;
+        this.session = session;
+        this.cache = cache;
+        this.compilationMode = compilationMode;
+        setRule(cache);
+    }
+
+    /**
+     * Set the script file receiving the error markers of the cells.
+     *
+     * @param resource the script file
+     */
+    public void setResource(IResource resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * Set the owner of the job and of the jobs of the cells, so they are cancelled with the jobs of the owner.
+     *
+     * @param owner the owner of the jobs
+     */
+    public void setOwner(Object owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return owner != null && family == owner;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        List<ScriptCells.Cell> cells = ScriptCells.split(script, compilationMode.name());
+        monitor.beginTask(name, cells.size());
+        console.begin(name);
+
+        // The cached cells are skipped until the first changed cell, and their variables are restored
+        int first = 0;
+        Map<String, Object> variables = new LinkedHashMap<>();
+        while (first < cells.size() && cache.get(cells.get(first).getKey()) != null) {
+            CellCache.CellResult result = cache.get(cells.get(first).getKey());
+            result.apply(variables);
+            console.write(header(cells.get(first), String.format("cached, %.3f s saved",
+                    result.getRunTime() / 1e9)));
+            console.write(result.getOutput());
+            first++;
+        }
+        monitor.worked(first);
+        session.restore(variables);
+
+        boolean success = true;
+        long start = System.nanoTime();
+        for (int i = first; i < cells.size() && success; i++) {
+            if (monitor.isCanceled()) {
+                success = false;
+                break;
+            }
+            ScriptCells.Cell cell = cells.get(i);
+            monitor.subTask(cell.getLabel());
+            CellOutput output = new CellOutput(cell);
+            GroovyJob job = new GroovyJob(name + " [" + cell.getLabel() + "]", cell.getScriptText(), session);
+            job.forceCompilationMode(compilationMode);
+            job.setResource(resource);
+            job.setOwner(owner);
+            job.setScriptOutput(output);
+            Map<String, Object> before = new HashMap<>(session.getBinding().getVariables());
+            job.schedule();
+            try {
+                job.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.cancel();
+                success = false;
+                break;
+            }
+            success = job.isSucceeded();
+            if (success) {
+                cache.put(cell.getKey(), new CellCache.CellResult(before, session.getBinding().getVariables(),
+                        IGNORED_VARIABLES, output.getText(), job.getRunTime()));
+            }
+            monitor.worked(1);
+        }
+        cache.retain(cells.stream().map(ScriptCells.Cell::getKey).collect(Collectors.toList()));
+
+        String message = String.format("%d cells, %d from the cache, executed in %.2f s", cells.size(), first,
+                (System.nanoTime() - start) / 1e9);
+        console.write("\n" + message + "\n");
+        console.end(success, null);
+        console.flush();
+        monitor.done();
+        LOGGER.info(message);
+        return new Status(IStatus.OK, CellJob.class.getName(), message);
+    }
+
+    private static String header(ScriptCells.Cell cell, String state) {
+        return "\n--- " + cell.getLabel() + " (line " + (cell.getStartLine() + 1) + ", " + state + ")\n";
+    }
+
+    /**
+     * Output of a cell, written into the console and kept for the cache.
+     */
+    private class CellOutput implements ScriptOutput {
+
+        private final ScriptCells.Cell cell;
+        private final StringBuilder text = new StringBuilder();
+
+        private CellOutput(ScriptCells.Cell cell) {
+            this.cell = cell;
+        }
+
+        @Override
+        public void begin(String name) {
+            console.write(header(cell, "executed"));
+        }
+
+        @Override
+        public synchronized void write(String chunk) {
+            text.append(chunk);
+            console.write(chunk);
+        }
+
+        @Override
+        public void end(boolean success, String error) {
+            if (error != null) {
+                console.write(error);
+            }
+        }
+
+        @Override
+        public void flush() {
+            console.flush();
+        }
+
+        private synchronized String getText() {
+            return text.toString();
+        }
+    }
+}
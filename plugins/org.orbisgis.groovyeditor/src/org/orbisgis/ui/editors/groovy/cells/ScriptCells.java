@@ -0,0 +1,159 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.cells;
+
+import org.orbisgis.ui.editors.groovy.Sha256;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cells of a script, delimited by the lines starting with {@value #DELIMITER} :
+ * <pre>
+ * //%% Load the data
+ * rows = sql.rows("SELECT * FROM roads")
+ * //%% Compute the statistics
+ * total = rows.sum { it.length }
+ * </pre>
+ * The text written after the delimiter is the title of the cell, and the lines before the first delimiter are a cell
+ * too. The cells share the variables of the binding only : a variable declared with {@code def} or a type is local to
+ * its cell, so it is neither seen by the next cells nor restored with the cached cells. Each cell has a key chaining
+ * its content with the keys of the previous cells, so the key of a cell changes when the cell or a cell above it
+ * changes.
+ */
+public class ScriptCells {
+
+    /**
+     * Start of the lines delimiting the cells.
+     */
+    public static final String DELIMITER = "//%%";
+
+    private ScriptCells() {
+    }
+
+    /**
+     * @param script the script source
+     * @return true if the script has at least one cell delimiter
+     */
+    public static boolean hasCells(String script) {
+        for (String line : script.split("\r?\n")) {
+            if (isDelimiter(line)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split a script into cells. The cells without code are ignored.
+     *
+     * @param script the script source
+     * @param seed text mixed into the key of the first cell, like the compilation options of the cells
+     * @return the cells
+     */
+    public static List<Cell> split(String script, String seed) {
+        List<Cell> cells = new ArrayList<>();
+        String[] lines = script.split("\r?\n", -1);
+        String key = hash("", seed);
+        String title = "";
+        int start = 0;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i <= lines.length; i++) {
+            if (i == lines.length || isDelimiter(lines[i])) {
+                if (!text.toString().trim().isEmpty()) {
+                    key = hash(key, text.toString());
+                    cells.add(new Cell(cells.size(), title, start, text.toString(), key));
+                }
+                if (i < lines.length) {
+                    title = lines[i].trim().substring(DELIMITER.length()).trim();
+                    start = i + 1;
+                    text.setLength(0);
+                }
+            } else {
+                text.append(lines[i]).append('\n');
+            }
+        }
+        return cells;
+    }
+
+    private static boolean isDelimiter(String line) {
+        return line.trim().startsWith(DELIMITER);
+    }
+
+    private static String hash(String previousKey, String text) {
+        return Sha256.hex(previousKey, text);
+    }
+
+    /**
+     * Cell of a script.
+     */
+    public static class Cell {
+        private final int index;
+        private final String title;
+        private final int startLine;
+        private final String text;
+        private final String key;
+
+        private Cell(int index, String title, int startLine, String text, String key) {
+            this.index = index;
+            this.title = title;
+            this.startLine = startLine;
+            this.text = text;
+            this.key = key;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return the index of the first line of the cell code in the script, starting from 0
+         */
+        public int getStartLine() {
+            return startLine;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return the code of the cell preceded by empty lines, so the line numbers of its errors are the ones of the
+         * script
+         */
+        public String getScriptText() {
+            return "\n".repeat(startLine) + text;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the title of the cell, or its number if it has no title
+         */
+        public String getLabel() {
+            return title.isEmpty() ? "cell " + (index + 1) : title;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.checkpoint;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.CodeVisitorSupport;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.orbisgis.ui.editors.groovy.memo.MemoizeCustomizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compilation customizer giving the hash of the source of each stage to the {@link ScriptCheckpoints} : the calls
+ * {@code checkpoint.stage(name) {...}} and {@code checkpoint.table(name, sql) {...}} become
+ * {@code checkpoint.stage(name, hash) {...}} and {@code checkpoint.table(name, sql, hash) {...}}, so the checkpoint of
+ * a stage is not used once the stage has been edited.
+ */
+public class CheckpointCustomizer extends CompilationCustomizer {
+
+    private static final String VARIABLE = "checkpoint";
+
+    public CheckpointCustomizer() {
+        super(CompilePhase.CANONICALIZATION);
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        StageVisitor visitor = new StageVisitor(source);
+        for (MethodNode method : classNode.getMethods()) {
+            if (method.getCode() != null) {
+                method.getCode().visit(visitor);
+            }
+        }
+    }
+
+    /**
+     * Visitor adding the source hash to the stage calls, including the stages nested in closures.
+     */
+    private static class StageVisitor extends CodeVisitorSupport {
+        private final SourceUnit source;
+        private List<String> lines = null;
+
+        private StageVisitor(SourceUnit source) {
+            this.source = source;
+        }
+
+        @Override
+        public void visitMethodCallExpression(MethodCallExpression call) {
+            super.visitMethodCallExpression(call);
+            if (!(call.getObjectExpression() instanceof VariableExpression) ||
+                    !VARIABLE.equals(((VariableExpression) call.getObjectExpression()).getName()) ||
+                    !(call.getArguments() instanceof ArgumentListExpression)) {
+                return;
+            }
+            List<Expression> args = new ArrayList<>(((ArgumentListExpression) call.getArguments()).getExpressions());
+            int count = "stage".equals(call.getMethodAsString()) ? 2 :
+                    "table".equals(call.getMethodAsString()) ? 3 : -1;
+            if (args.size() != count || !(args.get(count - 1) instanceof ClosureExpression)) {
+                return;
+            }
+            if (lines == null) {
+                lines = MemoizeCustomizer.readLines(source);
+            }
+            args.add(count - 1, new ConstantExpression(
+                    MemoizeCustomizer.sourceHash(lines, "", args.get(count - 1))));
+            ArgumentListExpression arguments = new ArgumentListExpression(args);
+            arguments.setSourcePosition(call.getArguments());
+            call.setArguments(arguments);
+        }
+    }
+}
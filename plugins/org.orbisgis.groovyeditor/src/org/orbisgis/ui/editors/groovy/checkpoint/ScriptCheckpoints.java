@@ -0,0 +1,360 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.checkpoint;
+
+import groovy.lang.Closure;
+import groovy.sql.Sql;
+import org.orbisgis.ui.editors.groovy.memo.ScriptObjectInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checkpoints of a script, available in the binding as the {@code checkpoint} variable, so a script stopped by an error,
+ * a cancellation or a restart of the workbench skips its completed stages when it is executed again :
+ * <pre>
+ * def grid = checkpoint.stage("grid") {
+ *     buildGrid(roads)
+ * }
+ * checkpoint.table("clean_roads", sql) {
+ *     sql.execute "CREATE TABLE clean_roads AS SELECT ..."
+ * }
+ * </pre>
+ * A stage keeps the serialized value returned by its closure, and a table stage keeps a marker which is valid while
+ * the table exists. The {@link CheckpointCustomizer} gives the hash of the source of each stage, so a stage is executed
+ * again once it has been edited. The checkpoints of a script are removed when the script succeeds, unless {@value #KEEP_PROPERTY} is
+ * true, and the checkpoints of all the scripts are removed after {@value #MAX_AGE_PROPERTY} days or when they exceed
+ * {@value #MAX_SIZE_PROPERTY} MB, the oldest first.
+ *
+ * This class only uses the JDK and groovy, so it is also available in the worker JVMs.
+ */
+public class ScriptCheckpoints {
+
+    public static final String DIRECTORY_PROPERTY = "org.orbisgis.groovyeditor.checkpoint.dir";
+    public static final String MAX_AGE_PROPERTY = "org.orbisgis.groovyeditor.checkpoint.days";
+    public static final String MAX_SIZE_PROPERTY = "org.orbisgis.groovyeditor.checkpoint.size";
+    public static final String KEEP_PROPERTY = "org.orbisgis.groovyeditor.checkpoint.keep";
+
+    /**
+     * Maximum age of the checkpoints in milliseconds, 7 days by default.
+     */
+    public static final long MAX_AGE = Long.getLong(MAX_AGE_PROPERTY, 7) * 24 * 3600 * 1000;
+
+    /**
+     * Maximum size of all the checkpoints in bytes, 2 GB by default.
+     */
+    public static final long MAX_SIZE = Long.getLong(MAX_SIZE_PROPERTY, 2048) * 1024 * 1024;
+
+    /**
+     * True to keep the checkpoints of the scripts which succeed.
+     */
+    public static final boolean KEEP = Boolean.getBoolean(KEEP_PROPERTY);
+
+    private static final String VALUE_EXTENSION = ".ser";
+    private static final String TABLE_EXTENSION = ".table";
+
+    private static volatile Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+            Paths.get(System.getProperty("java.io.tmpdir"), "groovy-checkpoints").toString()));
+
+    private final Path folder;
+
+    /**
+     * Create the checkpoints of a script.
+     *
+     * @param script the identifier of the script, like its path in the workspace
+     */
+    public ScriptCheckpoints(String script) {
+        this(getDirectory().resolve(fileName(script) + "-" + Integer.toHexString(script.hashCode())));
+    }
+
+    ScriptCheckpoints(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Create checkpoints which keep nothing, for the scripts without a stable identifier like the executions of a
+     * selection : the stages are always executed.
+     *
+     * @return the checkpoints
+     */
+    public static ScriptCheckpoints disabled() {
+        return new ScriptCheckpoints((Path) null);
+    }
+
+    public static Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Set the folder of the checkpoints of all the scripts, for example the groovy folder of the workspace.
+     *
+     * @param folder the folder of the checkpoints
+     */
+    public static void setDirectory(Path folder) {
+        directory = folder;
+    }
+
+    /**
+     * Execute a stage, or return the value saved by a previous execution of the stage.
+     *
+     * @param name the name of the stage
+     * @param body the stage, returning a serializable value
+     * @return the value of the stage
+     * @throws IOException if the value cannot be saved or read
+     */
+    public Object stage(String name, Closure<?> body) throws IOException {
+        return stage(name, null, body);
+    }
+
+    /**
+     * Execute a stage, or return the value saved by a previous execution of the same version of the stage.
+     *
+     * @param name the name of the stage
+     * @param source the hash of the source of the stage, null if it is unknown
+     * @param body the stage, returning a serializable value
+     * @return the value of the stage
+     * @throws IOException if the value cannot be saved or read
+     */
+    public Object stage(String name, String source, Closure<?> body) throws IOException {
+        if (folder == null) {
+            return body.call();
+        }
+        Path file = file(name, VALUE_EXTENSION);
+        if (Files.isRegularFile(file)) {
+            try (ObjectInputStream in = new ScriptObjectInputStream(
+                    new BufferedInputStream(Files.newInputStream(file)), body.getClass().getClassLoader())) {
+                if (Objects.equals(in.readObject(), source)) {
+                    return in.readObject();
+                }
+            } catch (ClassNotFoundException | IOException e) {
+                // The stage is executed again, for example when a class of the value has changed
+            }
+            Files.deleteIfExists(file);
+        }
+        Object value = body.call();
+        write(file, out -> {
+            try (ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                objects.writeObject(source);
+                objects.writeObject(value);
+            }
+        });
+        return value;
+    }
+
+    /**
+     * Execute a stage creating a table, unless the table has been created by a previous execution of the stage.
+     *
+     * @param name the name of the table
+     * @param sql a {@link Sql} or a {@link Connection} to the database of the table
+     * @param body the stage, creating the table
+     * @throws IOException if the marker of the stage cannot be saved
+     * @throws SQLException if the existence of the table cannot be checked
+     */
+    public void table(String name, Object sql, Closure<?> body) throws IOException, SQLException {
+        table(name, sql, null, body);
+    }
+
+    /**
+     * Execute a stage creating a table, unless the table has been created by a previous execution of the same version
+     * of the stage.
+     *
+     * @param name the name of the table
+     * @param sql a {@link Sql} or a {@link Connection} to the database of the table
+     * @param source the hash of the source of the stage, null if it is unknown
+     * @param body the stage, creating the table
+     * @throws IOException if the marker of the stage cannot be saved
+     * @throws SQLException if the existence of the table cannot be checked
+     */
+    public void table(String name, Object sql, String source, Closure<?> body) throws IOException, SQLException {
+        if (folder == null) {
+            body.call();
+            return;
+        }
+        Path file = file(name, TABLE_EXTENSION);
+        byte[] marker = (source == null ? name : name + "\n" + source).getBytes(StandardCharsets.UTF_8);
+        if (Files.isRegularFile(file) && Arrays.equals(Files.readAllBytes(file), marker) && tableExists(name, sql)) {
+            return;
+        }
+        body.call();
+        write(file, out -> out.write(marker));
+    }
+
+    private static boolean tableExists(String name, Object sql) throws SQLException {
+        String query = "SELECT * FROM " + name + " WHERE 1 = 0";
+        try {
+            if (sql instanceof Sql) {
+                ((Sql) sql).rows(query);
+            } else if (sql instanceof Connection) {
+                try (Statement statement = ((Connection) sql).createStatement()) {
+                    statement.executeQuery(query).close();
+                }
+            } else {
+                throw new IllegalArgumentException("A Sql or a Connection is expected to check the table " + name);
+            }
+            return true;
+        } catch (SQLException e) {
+            if (sql instanceof Connection && ((Connection) sql).isClosed()) {
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param name the name of a stage
+     * @return true if the stage has a checkpoint
+     */
+    public boolean has(String name) {
+        if (folder == null) {
+            return false;
+        }
+        return Files.isRegularFile(file(name, VALUE_EXTENSION)) || Files.isRegularFile(file(name, TABLE_EXTENSION));
+    }
+
+    /**
+     * @return the names of the checkpoint files, from the oldest to the newest
+     */
+    public List<String> list() {
+        if (folder == null || !Files.isDirectory(folder)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(path -> path.toString().endsWith(VALUE_EXTENSION) ||
+                    path.toString().endsWith(TABLE_EXTENSION))
+                    .sorted(Comparator.comparingLong(path -> path.toFile().lastModified()))
+                    .map(path -> path.getFileName().toString())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove the checkpoint of a stage, so the stage is executed again.
+     *
+     * @param name the name of the stage
+     * @throws IOException if the checkpoint cannot be removed
+     */
+    public void remove(String name) throws IOException {
+        if (folder == null) {
+            return;
+        }
+        Files.deleteIfExists(file(name, VALUE_EXTENSION));
+        Files.deleteIfExists(file(name, TABLE_EXTENSION));
+    }
+
+    /**
+     * Remove all the checkpoints of the script. The tables of the table stages are kept.
+     *
+     * @throws IOException if a checkpoint cannot be removed
+     */
+    public void clear() throws IOException {
+        delete(folder);
+    }
+
+    private Path file(String name, String extension) {
+        return folder.resolve(fileName(name) + extension);
+    }
+
+    private static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private void write(Path file, Writer writer) throws IOException {
+        Files.createDirectories(folder);
+        Path temp = Files.createTempFile(folder, "checkpoint", ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writer.write(out);
+            }
+            // The checkpoint only appears once it is complete
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Remove the checkpoints older than the maximum age, then the oldest checkpoints while all the checkpoints exceed
+     * the maximum size.
+     *
+     * @param root the folder of the checkpoints of all the scripts
+     * @param maxAge the maximum age in milliseconds
+     * @param maxSize the maximum size in bytes
+     * @throws IOException if the checkpoints cannot be listed or removed
+     */
+    public static void purge(Path root, long maxAge, long maxSize) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparingLong(path -> path.toFile().lastModified()))
+                    .collect(Collectors.toList());
+        }
+        long now = System.currentTimeMillis();
+        long total = files.stream().mapToLong(path -> path.toFile().length()).sum();
+        for (Path path : files) {
+            File file = path.toFile();
+            if (now - file.lastModified() > maxAge || total > maxSize) {
+                total -= file.length();
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void delete(Path folder) throws IOException {
+        if (folder == null || !Files.isDirectory(folder)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(folder)) {
+            paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+}
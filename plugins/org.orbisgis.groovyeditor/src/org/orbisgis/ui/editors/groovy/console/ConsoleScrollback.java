@@ -0,0 +1,248 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File keeping the console lines which have been removed from the console widget, so the full output of a script stays
+ * available without being kept on the heap.
+ *
+ * The lines are appended in UTF-8 and read back page by page through memory-mapped buffers. Pages always end at a line
+ * end, unless a single line is longer than the page.
+ */
+public class ConsoleScrollback implements Closeable {
+
+    private final Path file;
+    private FileChannel channel;
+
+    /**
+     * Open a scrollback file, removing its previous content.
+     *
+     * @param file the spill file
+     * @throws IOException if the file cannot be opened
+     */
+    public ConsoleScrollback(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Append lines at the end of the file.
+     *
+     * @param text the lines removed from the console
+     * @throws IOException if the text cannot be written
+     */
+    public synchronized void spill(String text) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * @return the size of the file in bytes
+     * @throws IOException if the size cannot be read
+     */
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Remove all the spilled lines.
+     *
+     * @throws IOException if the file cannot be truncated
+     */
+    public synchronized void clear() throws IOException {
+        channel.truncate(0);
+    }
+
+    /**
+     * Read the page starting at the given offset.
+     *
+     * @param offset the byte offset of the page, which should be a line start
+     * @param maxBytes the maximum size of the page
+     * @return the page
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized Page readPage(long offset, int maxBytes) throws IOException {
+        long size = channel.size();
+        offset = Math.max(0, Math.min(offset, size));
+        int length = (int) Math.min(maxBytes, size - offset);
+        if (length == 0) {
+            return new Page(offset, offset, "");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        int end = length;
+        if (offset + length < size) {
+            int lastLineEnd = lastIndexOf(buffer, length, (byte) '\n');
+            if (lastLineEnd >= 0) {
+                end = lastLineEnd + 1;
+            }
+        }
+        return new Page(offset, offset + end, decode(buffer, 0, end));
+    }
+
+    /**
+     * Read the page ending at the given offset.
+     *
+     * @param end the byte offset of the page end, which should be a line start
+     * @param maxBytes the maximum size of the page
+     * @return the page
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized Page readPageBefore(long end, int maxBytes) throws IOException {
+        end = Math.max(0, Math.min(end, channel.size()));
+        long start = Math.max(0, end - maxBytes);
+        int length = (int) (end - start);
+        if (length == 0) {
+            return new Page(end, end, "");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        int begin = 0;
+        if (start > 0) {
+            // Start after the first line end so the page does not begin in the middle of a line
+            for (int i = 0; i < length - 1; i++) {
+                if (buffer.get(i) == '\n') {
+                    begin = i + 1;
+                    break;
+                }
+            }
+        }
+        return new Page(start + begin, end, decode(buffer, begin, length));
+    }
+
+    /**
+     * Find the next line containing the given text.
+     *
+     * @param needle the text to find
+     * @param from the byte offset where the search starts
+     * @param pageSize the size of the pages read during the search
+     * @return the byte offset of the start of the first line containing the text, or -1 if not found
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized long find(String needle, long from, int pageSize) throws IOException {
+        long size = channel.size();
+        long offset = from;
+        while (offset < size) {
+            Page page = readPage(offset, Math.max(pageSize, needle.length() * 4));
+            int index = page.getText().indexOf(needle);
+            if (index >= 0) {
+                int lineStart = page.getText().lastIndexOf('\n', index) + 1;
+                return page.getStart() + page.getText().substring(0, lineStart).getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (page.getEnd() <= offset) {
+                break;
+            }
+            offset = page.getEnd();
+        }
+        return -1;
+    }
+
+    /**
+     * Write all the spilled lines followed by the given text into another file.
+     *
+     * @param target the exported file
+     * @param tail the text still displayed in the console
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void export(Path target, String tail) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(tail.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, int length, byte value) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(end);
+        slice.position(start);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    /**
+     * Part of the spilled lines.
+     */
+    public static class Page {
+        private final long start;
+        private final long end;
+        private final String text;
+
+        private Page(long start, long end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        /**
+         * @return the byte offset of the page start
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return the byte offset following the page end
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
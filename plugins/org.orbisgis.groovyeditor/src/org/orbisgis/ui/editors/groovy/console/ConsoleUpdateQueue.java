@@ -0,0 +1,181 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.console;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Queue of the console updates. The updates are added without lock from any thread and applied in order on the UI
+ * thread by batches, at most every {@link #FRAME_DELAY} milliseconds. Consecutive appends without style are merged,
+ * so a script printing many small lines causes one widget update per frame.
+ *
+ * When more than {@link #MAX_PENDING_CHARS} characters are waiting, the writing threads wait for the UI thread to catch
+ * up, so the queue stays bounded.
+ */
+public class ConsoleUpdateQueue {
+
+    public static final int FRAME_DELAY = 30;
+    public static final long MAX_PENDING_CHARS = 4L * 1024 * 1024;
+    private static final int MAX_FRAME_CHARS = 512 * 1024;
+
+    private final ConcurrentLinkedQueue<Update> updates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicLong pendingChars = new AtomicLong(0);
+    private final Object drained = new Object();
+    private final Consumer<Update> applier;
+
+    /**
+     * Create a queue.
+     *
+     * @param applier the consumer applying an update to the console widget, called from the UI thread
+     */
+    public ConsoleUpdateQueue(Consumer<Update> applier) {
+        this.applier = applier;
+    }
+
+    /**
+     * Replace the console content.
+     *
+     * @param text the new content
+     */
+    public void reset(String text) {
+        enqueue(new Update(true, text, SWT.NONE));
+    }
+
+    /**
+     * Append a text at the end of the console.
+     *
+     * @param text the text to append
+     * @param color the SWT system color of the text or SWT.NONE
+     */
+    public void append(String text, int color) {
+        enqueue(new Update(false, text, color));
+    }
+
+    private void enqueue(Update update) {
+        Display display = Display.getDefault();
+        if (display.isDisposed()) {
+            return;
+        }
+        long pending = pendingChars.addAndGet(update.text.length());
+        updates.offer(update);
+        if (scheduled.compareAndSet(false, true)) {
+            display.asyncExec(() -> display.timerExec(FRAME_DELAY, this::drainFrame));
+        }
+        if (pending > MAX_PENDING_CHARS && display.getThread() != Thread.currentThread()) {
+            synchronized (drained) {
+                try {
+                    while (pendingChars.get() > MAX_PENDING_CHARS && !display.isDisposed()) {
+                        drained.wait(FRAME_DELAY);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply all the waiting updates before returning. Can be called from any thread.
+     */
+    public void flush() {
+        Display display = Display.getDefault();
+        if (!display.isDisposed()) {
+            display.syncExec(() -> drain(Integer.MAX_VALUE));
+        }
+    }
+
+    private void drainFrame() {
+        scheduled.set(false);
+        drain(MAX_FRAME_CHARS);
+        if (!updates.isEmpty() && scheduled.compareAndSet(false, true)) {
+            Display.getDefault().timerExec(FRAME_DELAY, this::drainFrame);
+        }
+    }
+
+    /**
+     * Apply the waiting updates, merging the consecutive appends without style. Must be called from the UI thread.
+     *
+     * @param maxChars number of characters after which the remaining updates are left for the next frame
+     */
+    private void drain(int maxChars) {
+        StringBuilder merged = new StringBuilder();
+        long applied = 0;
+        Update update;
+        while (applied < maxChars && (update = updates.poll()) != null) {
+            applied += update.text.length();
+            if (!update.reset && update.color == SWT.NONE) {
+                merged.append(update.text);
+            } else {
+                if (merged.length() > 0) {
+                    applier.accept(new Update(false, merged.toString(), SWT.NONE));
+                    merged.setLength(0);
+                }
+                applier.accept(update);
+            }
+        }
+        if (merged.length() > 0) {
+            applier.accept(new Update(false, merged.toString(), SWT.NONE));
+        }
+        if (applied > 0 && pendingChars.addAndGet(-applied) <= MAX_PENDING_CHARS) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Console update.
+     */
+    public static class Update {
+        private final boolean reset;
+        private final String text;
+        private final int color;
+
+        private Update(boolean reset, String text, int color) {
+            this.reset = reset;
+            this.text = text;
+            this.color = color;
+        }
+
+        /**
+         * @return true if the text replaces the console content, false if it is appended
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return the SWT system color of the text or SWT.NONE
+         */
+        public int getColor() {
+            return color;
+        }
+    }
+}
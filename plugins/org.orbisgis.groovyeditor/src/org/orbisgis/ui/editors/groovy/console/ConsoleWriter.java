@@ -0,0 +1,113 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.console;
+
+import java.io.Writer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writer sending the script output to a sink, the groovy output console for example, chunk by chunk while the
+ * script is running.
+ *
+ * The written characters are kept in a fixed size buffer which is sent to the sink when it is full, when a new line is
+ * written and the last chunk is older than {@link #FLUSH_DELAY} milliseconds, or at least every {@link #FLUSH_DELAY}
+ * milliseconds by a background flusher. The sink is called from the writing thread, so a slow sink slows down the
+ * script instead of letting the output pile up in memory.
+ */
+public class ConsoleWriter extends Writer {
+
+    public static final int CHUNK_SIZE = 8192;
+    public static final long FLUSH_DELAY = 100;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Groovy console flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Consumer<String> sink;
+    private final char[] buffer = new char[CHUNK_SIZE];
+    private final ScheduledFuture<?> flusher;
+    private int length = 0;
+    private long lastFlush = System.currentTimeMillis();
+    private boolean closed = false;
+
+    /**
+     * Create a writer.
+     *
+     * @param sink the consumer of the output chunks
+     */
+    public ConsoleWriter(Consumer<String> sink) {
+        this.sink = sink;
+        this.flusher = FLUSHER.scheduleWithFixedDelay(this::flushIfStale, FLUSH_DELAY, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void write(char[] chars, int offset, int count) {
+        if (closed) {
+            return;
+        }
+        boolean newLine = false;
+        while (count > 0) {
+            int copied = Math.min(count, buffer.length - length);
+            System.arraycopy(chars, offset, buffer, length, copied);
+            for (int i = offset; i < offset + copied && !newLine; i++) {
+                newLine = chars[i] == '\n';
+            }
+            length += copied;
+            offset += copied;
+            count -= copied;
+            if (length == buffer.length) {
+                flush();
+            }
+        }
+        if (newLine && System.currentTimeMillis() - lastFlush >= FLUSH_DELAY) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (length > 0) {
+            String chunk = new String(buffer, 0, length);
+            length = 0;
+            sink.accept(chunk);
+        }
+        lastFlush = System.currentTimeMillis();
+    }
+
+    private synchronized void flushIfStale() {
+        if (System.currentTimeMillis() - lastFlush >= FLUSH_DELAY) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            flush();
+            flusher.cancel(false);
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.console;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * {@link System#out} replacement which sends what is printed by the script threads to their console writer, and what
+ * is printed by the other threads to the original {@link System#out}.
+ *
+ * The bytes are decoded line by line.
+ */
+public class ScriptSystemOut extends PrintStream {
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static ScriptSystemOut instance = null;
+
+    private final PrintStream original;
+    private final InheritableThreadLocal<Target> target = new InheritableThreadLocal<>();
+
+    private ScriptSystemOut(PrintStream original) {
+        super(original, true);
+        this.original = original;
+    }
+
+    /**
+     * Send the {@link System#out} output of the current thread, and of the threads it creates, to the given writer.
+     *
+     * @param writer the script output writer
+     */
+    public static synchronized void redirect(Writer writer) {
+        if (instance == null || System.out != instance) {
+            instance = new ScriptSystemOut(System.out);
+            System.setOut(instance);
+        }
+        instance.target.set(new Target(writer));
+    }
+
+    /**
+     * Get the output target of the current thread, to give it to a pooled thread working for the script, which does
+     * not inherit it.
+     *
+     * @return the target, or null if the output of the current thread is not redirected
+     */
+    public static synchronized Object current() {
+        return instance == null ? null : instance.target.get();
+    }
+
+    /**
+     * Send the {@link System#out} output of the current thread to a target taken from another thread with
+     * {@link #current()}, until {@link #release()} is called.
+     *
+     * @param target the target, null to keep the original output
+     */
+    public static synchronized void attach(Object target) {
+        if (instance != null && target instanceof Target) {
+            instance.target.set((Target) target);
+        }
+    }
+
+    /**
+     * Stop sending the {@link System#out} output of the current thread to its script writer.
+     */
+    public static synchronized void release() {
+        if (instance != null) {
+            Target target = instance.target.get();
+            if (target != null) {
+                target.flush();
+                instance.target.remove();
+            }
+        }
+    }
+
+    /**
+     * Restore the original {@link System#out}.
+     */
+    public static synchronized void uninstall() {
+        if (instance != null && System.out == instance) {
+            System.setOut(instance.original);
+        }
+        instance = null;
+    }
+
+    @Override
+    public void write(int b) {
+        Target t = target.get();
+        if (t == null) {
+            original.write(b);
+        } else {
+            t.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        Target t = target.get();
+        if (t == null) {
+            original.write(buf, off, len);
+        } else {
+            for (int i = off; i < off + len; i++) {
+                t.write(buf[i]);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        Target t = target.get();
+        if (t == null) {
+            original.flush();
+        } else {
+            t.flush();
+        }
+    }
+
+    /**
+     * Line buffer of a script thread.
+     */
+    private static class Target {
+        private final Writer writer;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        private Target(Writer writer) {
+            this.writer = writer;
+        }
+
+        private synchronized void write(int b) {
+            line.write(b);
+            if (b == '\n' || line.size() >= ConsoleWriter.CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private synchronized void flush() {
+            if (line.size() > 0) {
+                try {
+                    writer.write(new String(line.toByteArray(), CHARSET));
+                } catch (IOException e) {
+                    // The script output is closed, the line is dropped
+                }
+                line.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+import org.orbisgis.ui.editors.groovy.ScriptResourceMeter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer inserting rows through a prepared statement with JDBC batches, committing every given number of rows instead
+ * of after each row :
+ * <pre>
+ * batch.write(datasources.h2gis, "INSERT INTO roads VALUES (?, ?, ?)", commit: 100000) { writer ->
+ *     features.each { writer << [it.id, it.name, it.geom] }
+ * }
+ * </pre>
+ * The {@link Geometry} parameters are bound as EWKB, keeping their SRID, which H2GIS converts into geometries ; for
+ * PostGIS the parameter has to be given to {@code ST_GeomFromEWKB(?)}.
+ *
+ * With a background thread, the added rows are queued and written by the thread, so the script producing the rows
+ * does not wait for the database. A failure of the thread is thrown by the next call of the writer. The connection is
+ * then used by the thread until the writer is closed, so it must not be shared with the script meanwhile.
+ */
+public class BatchWriter implements AutoCloseable {
+
+    private static final Object[] END = new Object[0];
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final int batchSize;
+    private final int commitInterval;
+    private final boolean autoCommit;
+    private final BlockingQueue<Object[]> queue;
+    private final Thread thread;
+    private final ScriptResourceMeter meter = ScriptResourceMeter.current();
+    private final WKBWriter wkb2D = new WKBWriter(2, true);
+    private final WKBWriter wkb3D = new WKBWriter(3, true);
+    private final long start = System.nanoTime();
+    private volatile Throwable failure = null;
+    private volatile boolean aborted = false;
+    private boolean closed = false;
+    private int pending = 0;
+    private long uncommitted = 0;
+    private volatile long rows = 0;
+    private long elapsed = 0;
+
+    /**
+     * Prepare the statement of the writer and start its thread if any. The auto-commit mode of the connection is
+     * disabled until the writer is closed.
+     *
+     * @param connection the connection
+     * @param sql the insert statement, with a parameter for each value of a row
+     * @param batchSize the number of rows sent to the database at once
+     * @param commitInterval the number of rows between two commits, or 0 to commit once when the writer is closed
+     * @param queueSize the number of rows waiting for the background thread, or 0 to write from the calling thread
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public BatchWriter(Connection connection, String sql, int batchSize, int commitInterval, int queueSize)
+            throws SQLException {
+        this.connection = connection;
+        this.batchSize = Math.max(1, batchSize);
+        this.commitInterval = Math.max(0, commitInterval);
+        this.statement = connection.prepareStatement(sql);
+        this.autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        if (queueSize > 0) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            thread = new Thread(this::drain, "Groovy batch writer");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            queue = null;
+            thread = null;
+        }
+    }
+
+    /**
+     * Add a row.
+     *
+     * @param values the values of the statement parameters
+     * @throws SQLException if the rows cannot be written
+     * @throws InterruptedException if the script is interrupted while the queue is full
+     */
+    public void add(Object... values) throws SQLException, InterruptedException {
+        checkOpen();
+        if (queue == null) {
+            write(values);
+            return;
+        }
+        Object[] row = values.clone();
+        while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    /**
+     * Add a row, for {@code writer << [a, b, c]}.
+     *
+     * @param values the values of the statement parameters
+     * @return the writer
+     * @throws SQLException if the rows cannot be written
+     * @throws InterruptedException if the script is interrupted while the queue is full
+     */
+    public BatchWriter leftShift(List<?> values) throws SQLException, InterruptedException {
+        add(values.toArray());
+        return this;
+    }
+
+    /**
+     * @return the number of rows sent to the database
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of rows written by second since the writer creation, or until its closing
+     */
+    public double getRate() {
+        long nanos = closed ? elapsed : System.nanoTime() - start;
+        return nanos == 0 ? 0 : rows * 1e9 / nanos;
+    }
+
+    /**
+     * Write the remaining rows, commit and restore the auto-commit mode of the connection.
+     *
+     * @throws SQLException if the rows cannot be written
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (thread != null) {
+                stopThread();
+                checkFailure();
+            } else {
+                flush();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollback();
+            throw e;
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Stop the writer without writing the remaining rows, and roll back the rows which have not been committed.
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        aborted = true;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        rollback();
+        try {
+            finish();
+        } catch (SQLException e) {
+            // The writer is aborted because of a previous failure
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return a description of the written rows and of the throughput
+     */
+    public String describe() {
+        return String.format("%d rows written in %.2f s (%.0f rows/s)", rows,
+                (closed ? elapsed : System.nanoTime() - start) / 1e9, getRate());
+    }
+
+    private void write(Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, bind(values[i]));
+        }
+        statement.addBatch();
+        pending++;
+        if (pending >= batchSize) {
+            flush();
+        }
+    }
+
+    private Object bind(Object value) {
+        if (value instanceof Geometry) {
+            Coordinate coordinate = ((Geometry) value).getCoordinate();
+            boolean hasZ = coordinate != null && !Double.isNaN(coordinate.getZ());
+            return (hasZ ? wkb3D : wkb2D).write((Geometry) value);
+        }
+        return value;
+    }
+
+    private void flush() throws SQLException {
+        if (pending == 0) {
+            return;
+        }
+        statement.executeBatch();
+        rows += pending;
+        uncommitted += pending;
+        pending = 0;
+        if (commitInterval > 0 && uncommitted >= commitInterval) {
+            connection.commit();
+            uncommitted = 0;
+        }
+    }
+
+    /**
+     * Loop of the background thread, counted by the meter of the script which opened the writer.
+     */
+    private void drain() {
+        List<Object[]> rowsToWrite = new ArrayList<>(batchSize);
+        if (meter != null) {
+            meter.register();
+        }
+        try {
+            while (!aborted) {
+                rowsToWrite.add(queue.take());
+                queue.drainTo(rowsToWrite, batchSize - 1);
+                for (Object[] row : rowsToWrite) {
+                    if (row == END) {
+                        flush();
+                        return;
+                    }
+                    write(row);
+                }
+                rowsToWrite.clear();
+            }
+        } catch (InterruptedException e) {
+            // Aborted
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            if (meter != null) {
+                meter.unregister();
+            }
+        }
+    }
+
+    private void stopThread() throws SQLException {
+        try {
+            while (thread.isAlive() && !queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+            thread.join();
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+            throw new SQLException("The batch writer has been interrupted.", e);
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("The batch writer is closed.");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws SQLException {
+        Throwable e = failure;
+        if (e instanceof SQLException) {
+            throw (SQLException) e;
+        }
+        if (e != null) {
+            throw new SQLException("The batch writer thread failed.", e);
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // The connection is broken, the rows are lost anyway
+        }
+    }
+
+    private void finish() throws SQLException {
+        closed = true;
+        elapsed = System.nanoTime() - start;
+        try {
+            statement.close();
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import groovy.lang.GroovyObjectSupport;
+import groovy.lang.MissingPropertyException;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Current row of a cursor. The same row object is given to the closure for all the rows of the cursor, so it must be
+ * copied with {@link #toMap()} to be kept after the closure returns.
+ *
+ * The columns are read from the result set on their first access in a row : the columns which are not used by the
+ * script are never read, and the geometries are decoded only when they are used.
+ */
+public class CursorRow extends GroovyObjectSupport {
+
+    private final ResultSet resultSet;
+    private final List<String> columns;
+    private final Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final boolean[] geometries;
+    private final Object[] values;
+    private final long[] readAt;
+    private WKBReader reader = null;
+    private long rowNumber = 0;
+
+    /**
+     * Create the row of a result set.
+     *
+     * @param resultSet the result set
+     * @throws SQLException if the metadata of the result set cannot be read
+     */
+    CursorRow(ResultSet resultSet) throws SQLException {
+        this.resultSet = resultSet;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int count = metaData.getColumnCount();
+        String[] labels = new String[count];
+        geometries = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+            indexes.putIfAbsent(labels[i], i);
+            String type = metaData.getColumnTypeName(i + 1);
+            geometries[i] = type != null && type.toUpperCase(Locale.ROOT).startsWith("GEOMETRY");
+        }
+        columns = Collections.unmodifiableList(Arrays.asList(labels));
+        values = new Object[count];
+        readAt = new long[count];
+    }
+
+    /**
+     * Move the row to the next row of the result set.
+     *
+     * @return false if there is no more row
+     * @throws SQLException if the result set cannot be read
+     */
+    boolean next() throws SQLException {
+        if (!resultSet.next()) {
+            return false;
+        }
+        rowNumber++;
+        return true;
+    }
+
+    /**
+     * @return the number of the row, from 1
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * @return the labels of the columns
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        Integer index = indexes.get(name);
+        if (index != null) {
+            return get(index);
+        }
+        return super.getProperty(name);
+    }
+
+    @Override
+    public void setProperty(String name, Object value) {
+        throw new MissingPropertyException("The columns of a cursor row are read-only.", name, CursorRow.class);
+    }
+
+    /**
+     * @param index the index of a column, from 0
+     * @return the value of the column
+     */
+    public Object getAt(int index) {
+        return get(index);
+    }
+
+    /**
+     * @param name the label of a column
+     * @return the value of the column
+     */
+    public Object getAt(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            throw new MissingPropertyException(name, CursorRow.class);
+        }
+        return get(index);
+    }
+
+    /**
+     * @return a copy of the row, which can be kept after the closure returns
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            map.put(columns.get(i), get(i));
+        }
+        return map;
+    }
+
+    private Object get(int index) {
+        if (readAt[index] != rowNumber) {
+            try {
+                Object value = resultSet.getObject(index + 1);
+                values[index] = geometries[index] ? decode(value) : value;
+            } catch (SQLException e) {
+                throw new IllegalStateException("Unable to read the column '" + columns.get(index) + "'.", e);
+            }
+            readAt[index] = rowNumber;
+        }
+        return values[index];
+    }
+
+    /**
+     * Decode a geometry given as EWKB bytes or as hexadecimal EWKB, like the PostGIS driver does.
+     */
+    private Object decode(Object value) {
+        if (value == null || value instanceof Geometry) {
+            return value;
+        }
+        if (reader == null) {
+            reader = new WKBReader();
+        }
+        try {
+            return reader.read(value instanceof byte[] ? (byte[]) value : WKBReader.hexToBytes(value.toString()));
+        } catch (ParseException | RuntimeException e) {
+            throw new IllegalStateException("Unable to decode the geometry of the row " + rowNumber + ".", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "row " + rowNumber + " " + columns;
+    }
+}
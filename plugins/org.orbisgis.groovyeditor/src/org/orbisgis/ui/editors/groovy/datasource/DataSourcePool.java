@@ -0,0 +1,261 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.orbisgis.core.logger.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of the JDBC connections given to the groovy scripts, opened on the data sources of the database navigator.
+ *
+ * The connections are isolated execution contexts of the DBeaver data sources, so they share the driver, the
+ * credentials and the database files already opened by DBeaver instead of opening their own JDBC connections. A
+ * connection leased by a script run is given back at the end of the run and kept idle for the next runs, up to
+ * {@value #MAX_IDLE_PROPERTY} connections by data source. An idle connection is dropped when its data source has been
+ * disconnected or reconnected since its opening.
+ */
+public class DataSourcePool {
+
+    private static final Logger LOGGER = new Logger(DataSourcePool.class);
+
+    public static final String MAX_IDLE_PROPERTY = "org.orbisgis.groovyeditor.datasource.idle";
+
+    private static final String PURPOSE = "Groovy script";
+
+    private static final DataSourcePool INSTANCE = new DataSourcePool(Integer.getInteger(MAX_IDLE_PROPERTY, 2));
+
+    private final int maxIdle;
+    private final Map<String, Deque<Lease>> idle = new HashMap<>();
+    private volatile List<DBPDataSourceContainer> containers = Collections.emptyList();
+
+    private DataSourcePool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Get the pool shared by all the groovy jobs.
+     *
+     * @return the shared pool
+     */
+    public static DataSourcePool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the data sources available to the scripts, usually the data sources shown in the database navigator.
+     *
+     * @param containers the data sources
+     */
+    public void setContainers(List<DBPDataSourceContainer> containers) {
+        this.containers = Collections.unmodifiableList(new ArrayList<>(containers));
+    }
+
+    /**
+     * @return the data sources available to the scripts
+     */
+    public List<DBPDataSourceContainer> getContainers() {
+        return containers;
+    }
+
+    /**
+     * Find a data source by its name or its identifier.
+     *
+     * @param name the name or the identifier of the data source
+     * @return the data source or null if not found
+     */
+    public DBPDataSourceContainer find(String name) {
+        for (DBPDataSourceContainer container : containers) {
+            if (name.equals(container.getName()) || name.equals(container.getId())) {
+                return container;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lease a connection to a data source, reusing an idle one if possible. The data source is connected if needed.
+     *
+     * @param container the data source
+     * @param monitor the progress monitor of the script run
+     * @return the leased connection, to give back with {@link #release(Lease)}
+     * @throws DBException if the data source cannot be connected
+     * @throws SQLException if the JDBC connection cannot be obtained
+     */
+    public Lease lease(DBPDataSourceContainer container, DBRProgressMonitor monitor) throws DBException, SQLException {
+        Lease lease;
+        while ((lease = pollIdle(container)) != null) {
+            if (lease.isValid()) {
+                return lease;
+            }
+            lease.close();
+        }
+        if (!container.isConnected()) {
+            container.connect(monitor, true, true);
+        }
+        DBPDataSource dataSource = container.getDataSource();
+        if (dataSource == null) {
+            throw new DBException("The data source '" + container.getName() + "' is not connected.");
+        }
+        DBCExecutionContext context = dataSource.getDefaultInstance().openIsolatedContext(monitor, PURPOSE, null);
+        if (!(context instanceof JDBCExecutionContext)) {
+            context.close();
+            throw new DBException("The data source '" + container.getName() + "' is not a JDBC data source.");
+        }
+        try {
+            return new Lease(container, dataSource, context, ((JDBCExecutionContext) context).getConnection(monitor));
+        } catch (SQLException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Give back a leased connection. The transaction left open by the script is rolled back.
+     *
+     * @param lease the leased connection
+     */
+    public void release(Lease lease) {
+        if (!lease.reset()) {
+            lease.close();
+            return;
+        }
+        synchronized (idle) {
+            Deque<Lease> leases = idle.computeIfAbsent(lease.container.getId(), key -> new ArrayDeque<>());
+            if (leases.size() < maxIdle) {
+                leases.push(lease);
+                return;
+            }
+        }
+        lease.close();
+    }
+
+    /**
+     * Close a leased connection instead of giving it back, for example when it may still be used by a thread.
+     *
+     * @param lease the leased connection
+     */
+    public void discard(Lease lease) {
+        lease.close();
+    }
+
+    /**
+     * Close all the idle connections.
+     */
+    public void clear() {
+        List<Lease> leases = new ArrayList<>();
+        synchronized (idle) {
+            idle.values().forEach(leases::addAll);
+            idle.clear();
+        }
+        leases.forEach(Lease::close);
+    }
+
+    private Lease pollIdle(DBPDataSourceContainer container) {
+        synchronized (idle) {
+            Deque<Lease> leases = idle.get(container.getId());
+            return leases == null ? null : leases.poll();
+        }
+    }
+
+    /**
+     * Connection leased to a script run.
+     */
+    public static class Lease {
+        private final DBPDataSourceContainer container;
+        private final DBPDataSource dataSource;
+        private final DBCExecutionContext context;
+        private final Connection connection;
+        private final boolean autoCommit;
+
+        private Lease(DBPDataSourceContainer container, DBPDataSource dataSource, DBCExecutionContext context,
+                      Connection connection) throws SQLException {
+            this.container = container;
+            this.dataSource = dataSource;
+            this.context = context;
+            this.connection = connection;
+            this.autoCommit = connection.getAutoCommit();
+        }
+
+        public DBPDataSourceContainer getContainer() {
+            return container;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * @return true if the connection is still open on the current connection of its data source
+         */
+        private boolean isValid() {
+            try {
+                return container.isConnected() && container.getDataSource() == dataSource && !connection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Roll back the pending transaction and restore the auto-commit mode of the connection.
+         *
+         * @return true if the connection can be reused
+         */
+        private boolean reset() {
+            if (!isValid()) {
+                return false;
+            }
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+                if (connection.getAutoCommit() != autoCommit) {
+                    connection.setAutoCommit(autoCommit);
+                }
+                connection.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                LOGGER.warn("Unable to reset a connection to '" + container.getName() + "', it is closed.", e);
+                return false;
+            }
+        }
+
+        private void close() {
+            try {
+                context.close();
+            } catch (Exception e) {
+                LOGGER.warn("Unable to close a connection to '" + container.getName() + "'.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Stream merging the values produced concurrently by several sources, for example the rows of the same query executed
+ * on several data sources.
+ *
+ * The producers run on a bounded thread pool of their own and put their values into a bounded queue, so a slow reader
+ * holds the producers back instead of filling the memory, without holding the threads of the other fan-outs. The
+ * values of a producer keep their order, the values of different producers are interleaved as they arrive. The first
+ * failure of a producer stops the others and is thrown by the stream. Closing the stream before its end cancels the
+ * producers, for example the running queries, and waits {@value #STOP_TIMEOUT} seconds at most for their end.
+ *
+ * This class only uses the JDK.
+ */
+public class FanOut implements Iterator<Object>, Closeable {
+
+    public static final String THREADS_PROPERTY = "org.orbisgis.groovyeditor.fanout.threads";
+    public static final String QUEUE_PROPERTY = "org.orbisgis.groovyeditor.fanout.queue";
+
+    /**
+     * Maximum delay in seconds waited by {@link #close()} for the end of the cancelled producers.
+     */
+    public static final long STOP_TIMEOUT = 10;
+
+    private static final String THREAD_NAME = "Groovy fan-out ";
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final List<Future<?>> futures = new ArrayList<>();
+    private final List<Producer> producers = new ArrayList<>();
+    private volatile boolean closed = false;
+    private int running;
+    private Object next = null;
+
+    /**
+     * Source of values.
+     */
+    public interface Producer {
+        /**
+         * Produce the values.
+         *
+         * @param emit the consumer of the values, which blocks while the stream is full
+         * @throws Exception if the values cannot be produced
+         */
+        void produce(Consumer<Object> emit) throws Exception;
+
+        /**
+         * Interrupt the production, called from another thread when the stream is closed before its end. The
+         * producer stops at its next value otherwise.
+         */
+        default void cancel() {
+        }
+    }
+
+    /**
+     * Start the producers on a thread pool of their own, which ends with them. Its size is bounded by the system
+     * property {@value #THREADS_PROPERTY}, the number of processors by default.
+     *
+     * @param producers the producers by source name
+     * @return the merged stream
+     */
+    public static FanOut start(Map<String, Producer> producers) {
+        int size = Math.max(1, Integer.getInteger(THREADS_PROPERTY,
+                Math.max(2, Runtime.getRuntime().availableProcessors())));
+        ExecutorService executor = newExecutor(Math.min(size, Math.max(1, producers.size())));
+        try {
+            return new FanOut(executor, Math.max(1, Integer.getInteger(QUEUE_PROPERTY, 1024)), producers);
+        } finally {
+            // The submitted producers still run, then the threads end
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Start the producers.
+     *
+     * @param executor the executor running the producers
+     * @param capacity the number of values waiting to be read above which the producers are held back
+     * @param producers the producers by source name
+     */
+    FanOut(ExecutorService executor, int capacity, Map<String, Producer> producers) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = producers.size();
+        for (Map.Entry<String, Producer> entry : producers.entrySet()) {
+            this.producers.add(entry.getValue());
+            futures.add(executor.submit(() -> produce(entry.getKey(), entry.getValue())));
+        }
+    }
+
+    private void produce(String source, Producer producer) {
+        Object last = END;
+        try {
+            producer.produce(this::put);
+        } catch (CancellationException e) {
+            return;
+        } catch (Throwable e) {
+            last = new Failure(source, e);
+        }
+        try {
+            put(last);
+        } catch (CancellationException e) {
+            // The stream has been closed in the meantime
+        }
+    }
+
+    /**
+     * Add a value to the queue, waiting while the queue is full.
+     *
+     * @throws CancellationException if the stream has been closed
+     */
+    private void put(Object value) {
+        try {
+            while (!closed) {
+                if (queue.offer(value, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new CancellationException();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        while (running > 0 && !closed) {
+            Object value;
+            try {
+                value = queue.take();
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("The fan-out has been interrupted.");
+            }
+            if (value == END) {
+                running--;
+            } else if (value instanceof Failure) {
+                close();
+                Failure failure = (Failure) value;
+                throw new IllegalStateException("Failure on '" + failure.source + "'.", failure.cause);
+            } else {
+                next = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object value = next;
+        next = null;
+        return value;
+    }
+
+    /**
+     * Cancel the producers and wait for the ones which have started, so their resources can be released safely.
+     */
+    @Override
+    public void close() {
+        stop(STOP_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cancel the producers and wait for the ones which have started.
+     *
+     * @param timeout the maximum delay waited for the end of the producers
+     * @param unit the unit of the delay
+     * @return true if all the producers have stopped, false if some of them are still running
+     */
+    public boolean stop(long timeout, TimeUnit unit) {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            for (Producer producer : producers) {
+                producer.cancel();
+            }
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Future<?> future : futures) {
+            if (!future.cancel(false)) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } catch (TimeoutException e) {
+                    return false;
+                } catch (ExecutionException | CancellationException e) {
+                    // The failures are reported by the stream
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create the thread pool of the producers of a fan-out.
+     *
+     * @param size the number of sources queried at the same time
+     * @return the executor
+     */
+    private static ExecutorService newExecutor(int size) {
+        AtomicInteger count = new AtomicInteger(1);
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            // The pooled threads must not inherit the output of the script which creates them
+            Thread thread = new Thread(null, runnable, THREAD_NAME + count.getAndIncrement(), 0, false);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class Failure {
+        private final String source;
+        private final Throwable cause;
+
+        private Failure(String source, Throwable cause) {
+            this.source = source;
+            this.cause = cause;
+        }
+    }
+}
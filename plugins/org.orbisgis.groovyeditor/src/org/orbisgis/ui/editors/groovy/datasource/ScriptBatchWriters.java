@@ -0,0 +1,172 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import groovy.lang.Closure;
+import groovy.sql.Sql;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Factory of the {@link BatchWriter}s of a script run, available in the binding as the {@code batch} variable :
+ * <pre>
+ * def writer = batch.open("h2gis", "INSERT INTO points VALUES (?, ?)", batchSize: 5000, background: true)
+ * points.each { writer.add(it.id, it.geom) }
+ * writer.close()
+ * </pre>
+ * The target is a {@link Sql}, a {@link Connection} or the name of a data source. The options are :
+ * <ul>
+ *     <li>{@code batchSize} : number of rows sent to the database at once, 1000 by default,</li>
+ *     <li>{@code commit} : number of rows between two commits, 0 to commit once at the end, 50000 by default,</li>
+ *     <li>{@code background} : true to write the rows from a background thread, false by default,</li>
+ *     <li>{@code queue} : number of rows waiting for the background thread, 10000 by default.</li>
+ * </ul>
+ * A background writer on a data source name gets its own connection. A background writer on a {@link Sql} or a
+ * {@link Connection} uses it from its thread, so the script must not use this connection until the writer is closed :
+ * the commits of the writer would include the changes of the script.
+ * The throughput of a writer is written into the output when it is closed. The writers left open are closed at the
+ * end of the run if the script succeeds and aborted otherwise.
+ */
+public class ScriptBatchWriters {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_COMMIT = 50000;
+    private static final int DEFAULT_QUEUE = 10000;
+
+    private final ScriptDataSources dataSources;
+    private final PrintWriter out;
+    private final List<BatchWriter> writers = new ArrayList<>();
+
+    /**
+     * Create the factory of a script run.
+     *
+     * @param dataSources the data sources of the run, giving the connections of the named targets
+     * @param out the output of the script, receiving the throughput of the writers
+     */
+    public ScriptBatchWriters(ScriptDataSources dataSources, PrintWriter out) {
+        this.dataSources = dataSources;
+        this.out = out;
+    }
+
+    public BatchWriter open(Object target, String sql) throws SQLException {
+        return open(Collections.emptyMap(), target, sql);
+    }
+
+    /**
+     * Open a writer.
+     *
+     * @param options the options of the writer
+     * @param target the {@link Sql}, the {@link Connection} or the data source name
+     * @param sql the insert statement
+     * @return the writer
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public synchronized BatchWriter open(Map<String, ?> options, Object target, String sql) throws SQLException {
+        boolean background = Boolean.TRUE.equals(options.get("background"));
+        Connection connection = background && target instanceof CharSequence ?
+                dataSources.dedicatedConnection(target.toString()) : dataSources.resolve(target);
+        BatchWriter writer = new Writer(connection, sql, intOption(options, "batchSize", DEFAULT_BATCH_SIZE),
+                intOption(options, "commit", DEFAULT_COMMIT),
+                background ? intOption(options, "queue", DEFAULT_QUEUE) : 0);
+        writers.add(writer);
+        return writer;
+    }
+
+    public Object write(Object target, String sql, Closure<?> body) throws SQLException {
+        return write(Collections.emptyMap(), target, sql, body);
+    }
+
+    /**
+     * Open a writer, give it to the closure and close it, or abort it if the closure fails.
+     *
+     * @param options the options of the writer
+     * @param target the {@link Sql}, the {@link Connection} or the data source name
+     * @param sql the insert statement
+     * @param body the closure receiving the writer
+     * @return the value returned by the closure
+     * @throws SQLException if the rows cannot be written
+     */
+    public Object write(Map<String, ?> options, Object target, String sql, Closure<?> body) throws SQLException {
+        BatchWriter writer = open(options, target, sql);
+        Object result;
+        try {
+            result = body.call(writer);
+        } catch (Throwable e) {
+            // Including the checked exceptions thrown by the groovy closures
+            writer.abort();
+            throw e;
+        }
+        writer.close();
+        return result;
+    }
+
+    /**
+     * Close the writers left open at the end of the run.
+     *
+     * @param succeeded true if the script succeeded, false to abort the writers
+     */
+    public synchronized void close(boolean succeeded) {
+        for (BatchWriter writer : writers) {
+            if (succeeded) {
+                try {
+                    writer.close();
+                } catch (SQLException e) {
+                    out.println("Unable to close a batch writer : " + e.getMessage());
+                    writer.abort();
+                }
+            } else {
+                writer.abort();
+            }
+        }
+        writers.clear();
+        out.flush();
+    }
+
+    private static int intOption(Map<String, ?> options, String name, int defaultValue) {
+        Object value = options.get(name);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Writer reporting its throughput when it is closed.
+     */
+    private class Writer extends BatchWriter {
+
+        private Writer(Connection connection, String sql, int batchSize, int commitInterval, int queueSize)
+                throws SQLException {
+            super(connection, sql, batchSize, commitInterval, queueSize);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            boolean open = !isClosed();
+            super.close();
+            if (open) {
+                out.println("Batch writer : " + describe());
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import groovy.lang.Closure;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forward-only cursors of a script run, available in the binding as the {@code cursor} variable :
+ * <pre>
+ * long count = cursor.each(datasources.h2gis, "SELECT * FROM buildings", fetchSize: 5000) { row ->
+ *     if (row.height > 20) {
+ *         tall << row.the_geom.area
+ *     }
+ * }
+ * </pre>
+ * Unlike {@code Sql.eachRow}, the rows are read with a fetch size so the memory used does not depend on the size of
+ * the result, the same {@link CursorRow} is given for all the rows, and the columns, including the geometries, are
+ * only read when the closure uses them. The closure can return {@code false} to stop the cursor.
+ *
+ * The options are {@code fetchSize}, 1000 rows by default, and {@code maxRows}, 0 by default for no limit. The
+ * auto-commit mode is disabled while the cursor is open, as the PostgreSQL driver ignores the fetch size otherwise.
+ */
+public class ScriptCursors {
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final ScriptDataSources dataSources;
+
+    /**
+     * Create the cursors of a script run.
+     *
+     * @param dataSources the data sources of the run, giving the connections of the named targets
+     */
+    public ScriptCursors(ScriptDataSources dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    public long each(Object target, String query, Closure<?> body) throws SQLException {
+        return each(Collections.emptyMap(), target, query, Collections.emptyList(), body);
+    }
+
+    public long each(Map<String, ?> options, Object target, String query, Closure<?> body) throws SQLException {
+        return each(options, target, query, Collections.emptyList(), body);
+    }
+
+    public long each(Object target, String query, List<?> params, Closure<?> body) throws SQLException {
+        return each(Collections.emptyMap(), target, query, params, body);
+    }
+
+    /**
+     * Call a closure for each row of a query.
+     *
+     * @param options the options of the cursor
+     * @param target a {@link groovy.sql.Sql}, a {@link Connection} or the name of a data source
+     * @param query the query
+     * @param params the parameters of the query
+     * @param body the closure receiving the {@link CursorRow}
+     * @return the number of rows given to the closure
+     * @throws SQLException if the query fails
+     */
+    public long each(Map<String, ?> options, Object target, String query, List<?> params, Closure<?> body)
+            throws SQLException {
+        return query(options, target, query, params, resultSet -> {
+            CursorRow row = new CursorRow(resultSet);
+            while (row.next()) {
+                if (Boolean.FALSE.equals(body.call(row))) {
+                    break;
+                }
+            }
+            return row.getRowNumber();
+        });
+    }
+
+    /**
+     * Execute a query with a forward-only cursor and give its result set to a reader.
+     *
+     * @param options the options of the cursor
+     * @param target a {@link groovy.sql.Sql}, a {@link Connection} or the name of a data source
+     * @param query the query
+     * @param params the parameters of the query
+     * @param reader the reader of the result set
+     * @return the value returned by the reader
+     * @throws SQLException if the query fails
+     */
+    public <T> T query(Map<String, ?> options, Object target, String query, List<?> params,
+                       ResultSetReader<T> reader) throws SQLException {
+        Connection connection = dataSources.resolve(target);
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(intOption(options, "fetchSize", DEFAULT_FETCH_SIZE));
+            statement.setMaxRows(intOption(options, "maxRows", 0));
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.setFetchDirection(ResultSet.FETCH_FORWARD);
+                return reader.read(resultSet);
+            }
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int intOption(Map<String, ?> options, String name, int defaultValue) {
+        Object value = options.get(name);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Reader of the result set of a cursor.
+     */
+    public interface ResultSetReader<T> {
+        T read(ResultSet resultSet) throws SQLException;
+    }
+}
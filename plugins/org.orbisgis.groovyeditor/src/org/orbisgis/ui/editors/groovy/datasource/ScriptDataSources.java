@@ -0,0 +1,410 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import groovy.lang.Closure;
+import groovy.lang.GroovyObjectSupport;
+import groovy.sql.Sql;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.orbisgis.ui.editors.groovy.ScriptResourceMeter;
+import org.orbisgis.ui.editors.groovy.console.ScriptSystemOut;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Data sources of the database navigator, available in the binding as the {@code datasources} variable :
+ * <pre>
+ * def sql = datasources.h2gis
+ * sql.eachRow("SELECT * FROM roads") { ... }
+ * Connection connection = datasources.connection("postgis")
+ * datasources.fanOut(["h2gis", "postgis"], "SELECT COUNT(*) AS n FROM roads").each { println "$it.datasource $it.n" }
+ * </pre>
+ * The connections are leased from the {@link DataSourcePool} when a data source is used for the first time in a run,
+ * and given back at the end of the run, so the scripts must not close them. The fan-outs lease a connection of their
+ * own for each data source, given back when the data source has produced all its values, so the script can use its
+ * connections while it reads a fan-out.
+ */
+public class ScriptDataSources extends GroovyObjectSupport implements Closeable {
+
+    /**
+     * Key of the data source name in the rows returned by {@link #fanOut(List, String)}.
+     */
+    public static final String DATASOURCE_KEY = "datasource";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final DataSourcePool pool;
+    private final DBRProgressMonitor monitor;
+    private final Map<String, Leased> leased = new LinkedHashMap<>();
+    private final List<DataSourcePool.Lease> dedicated = new ArrayList<>();
+    private final List<FanOut> fanOuts = new ArrayList<>();
+
+    /**
+     * Create the data sources of a script run.
+     *
+     * @param monitor the progress monitor of the run, used to connect the data sources
+     */
+    public ScriptDataSources(DBRProgressMonitor monitor) {
+        this.pool = DataSourcePool.getInstance();
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        if ("names".equals(name)) {
+            return getNames();
+        }
+        return sql(name);
+    }
+
+    /**
+     * @param name the name or the identifier of a data source
+     * @return a {@link Sql} on the connection leased for the run
+     */
+    public synchronized Sql sql(String name) {
+        return lease(name).sql;
+    }
+
+    /**
+     * @param name the name or the identifier of a data source
+     * @return the JDBC connection leased for the run
+     */
+    public synchronized Connection connection(String name) {
+        return lease(name).lease.getConnection();
+    }
+
+    /**
+     * Lease a connection which is not shared with {@link #sql(String)} and {@link #connection(String)}, for example
+     * for a helper using it from another thread. The connection is given back at the end of the run.
+     *
+     * @param name the name or the identifier of a data source
+     * @return a JDBC connection leased for the run
+     */
+    public synchronized Connection dedicatedConnection(String name) {
+        DBPDataSourceContainer container = find(name);
+        try {
+            DataSourcePool.Lease lease = pool.lease(container, monitor);
+            synchronized (dedicated) {
+                dedicated.add(lease);
+            }
+            return lease.getConnection();
+        } catch (DBException | SQLException e) {
+            throw new IllegalStateException("Unable to connect to the data source '" + name + "'.", e);
+        }
+    }
+
+    /**
+     * @return the names of the available data sources
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (DBPDataSourceContainer container : pool.getContainers()) {
+            names.add(container.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Execute a query on all the data sources at the same time.
+     *
+     * @param query the query
+     * @return the merged rows, see {@link #fanOut(List, String)}
+     */
+    public FanOut fanOut(String query) {
+        return fanOut(getNames(), query);
+    }
+
+    /**
+     * Execute a query on several data sources at the same time. The rows are streamed as they are read, as maps of
+     * the column values with the name of their data source under the {@value #DATASOURCE_KEY} key.
+     *
+     * @param names the names of the data sources
+     * @param query the query
+     * @return the merged rows, to close if they are not all read
+     */
+    public FanOut fanOut(List<String> names, String query) {
+        Map<String, Connection> connections = dedicatedConnections(names);
+        Map<String, FanOut.Producer> producers = new LinkedHashMap<>();
+        connections.forEach((name, connection) -> producers.put(name, new QueryProducer(name, connection, query)));
+        return register(producers, connections);
+    }
+
+    /**
+     * Call a closure on all the data sources at the same time.
+     *
+     * @param function the closure
+     * @return the merged results, see {@link #fanOut(List, Closure)}
+     */
+    public FanOut fanOut(Closure<?> function) {
+        return fanOut(getNames(), function);
+    }
+
+    /**
+     * Call a closure on several data sources at the same time. The closure receives a {@link Sql} on a connection of
+     * its own, not shared with the script, and optionally the name of the data source. The values of the returned
+     * collections or iterators are streamed one by one, and the other returned values as they are.
+     *
+     * @param names the names of the data sources
+     * @param function the closure, called from the threads of the fan-out
+     * @return the merged results, to close if they are not all read
+     */
+    public FanOut fanOut(List<String> names, Closure<?> function) {
+        Map<String, Connection> connections = dedicatedConnections(names);
+        Map<String, FanOut.Producer> producers = new LinkedHashMap<>();
+        for (String name : names) {
+            Sql sql = new Sql(connections.get(name));
+            producers.put(name, emit -> {
+                Object result = function.getMaximumNumberOfParameters() >= 2 ? function.call(sql, name) :
+                        function.call(sql);
+                if (result instanceof Iterable) {
+                    result = ((Iterable<?>) result).iterator();
+                }
+                if (result instanceof Iterator) {
+                    Iterator<?> iterator = (Iterator<?>) result;
+                    while (iterator.hasNext()) {
+                        emit.accept(iterator.next());
+                    }
+                } else if (result != null) {
+                    emit.accept(result);
+                }
+            });
+        }
+        return register(producers, connections);
+    }
+
+    /**
+     * Lease a connection for each producer of a fan-out, so the script can use its own connections meanwhile.
+     */
+    private Map<String, Connection> dedicatedConnections(List<String> names) {
+        Map<String, Connection> connections = new LinkedHashMap<>();
+        try {
+            for (String name : names) {
+                connections.put(name, dedicatedConnection(name));
+            }
+        } catch (RuntimeException e) {
+            connections.values().forEach(this::releaseDedicated);
+            throw e;
+        }
+        return connections;
+    }
+
+    /**
+     * Start the producers of a fan-out. What they print goes to the output of the calling script, and the resources
+     * they use are counted by its meter, which the threads of the fan-out do not inherit. The connection of a producer
+     * is given back when it ends.
+     */
+    private synchronized FanOut register(Map<String, FanOut.Producer> producers, Map<String, Connection> connections) {
+        Object output = ScriptSystemOut.current();
+        ScriptResourceMeter meter = ScriptResourceMeter.current();
+        Map<String, FanOut.Producer> redirected = new LinkedHashMap<>();
+        producers.forEach((name, producer) -> redirected.put(name, new FanOut.Producer() {
+            @Override
+            public void produce(Consumer<Object> emit) throws Exception {
+                ScriptSystemOut.attach(output);
+                if (meter != null) {
+                    meter.register();
+                }
+                try {
+                    producer.produce(emit);
+                } finally {
+                    if (meter != null) {
+                        meter.unregister();
+                    }
+                    ScriptSystemOut.release();
+                    releaseDedicated(connections.get(name));
+                }
+            }
+
+            @Override
+            public void cancel() {
+                producer.cancel();
+            }
+        }));
+        FanOut fanOut = FanOut.start(redirected);
+        fanOuts.add(fanOut);
+        return fanOut;
+    }
+
+    /**
+     * Get the connection of the target of a script helper.
+     *
+     * @param target a {@link Sql} created on a connection, a {@link Connection} or the name of a data source
+     * @return the connection
+     */
+    public Connection resolve(Object target) {
+        if (target instanceof Connection) {
+            return (Connection) target;
+        }
+        if (target instanceof Sql) {
+            Connection connection = ((Sql) target).getConnection();
+            if (connection == null) {
+                throw new IllegalArgumentException("The Sql must be created on a connection, not on a DataSource.");
+            }
+            return connection;
+        }
+        if (target instanceof CharSequence) {
+            return connection(target.toString());
+        }
+        throw new IllegalArgumentException("A Sql, a Connection or a data source name is expected, not " + target);
+    }
+
+    private DBPDataSourceContainer find(String name) {
+        DBPDataSourceContainer container = pool.find(name);
+        if (container == null) {
+            throw new IllegalArgumentException("No data source named '" + name + "', the available data sources are " +
+                    getNames() + ".");
+        }
+        return container;
+    }
+
+    private Leased lease(String name) {
+        DBPDataSourceContainer container = find(name);
+        Leased current = leased.get(container.getId());
+        if (current == null) {
+            try {
+                DataSourcePool.Lease lease = pool.lease(container, monitor);
+                current = new Leased(lease, new Sql(lease.getConnection()));
+                leased.put(container.getId(), current);
+            } catch (DBException | SQLException e) {
+                throw new IllegalStateException("Unable to connect to the data source '" + name + "'.", e);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stop the fan-outs which have not been read until their end, then give back the connections leased during the
+     * run. The dedicated connections are closed instead if a fan-out producer is still running after its
+     * cancellation.
+     */
+    @Override
+    public synchronized void close() {
+        boolean stopped = true;
+        for (FanOut fanOut : fanOuts) {
+            stopped &= fanOut.stop(FanOut.STOP_TIMEOUT, TimeUnit.SECONDS);
+        }
+        fanOuts.clear();
+        for (Leased current : leased.values()) {
+            pool.release(current.lease);
+        }
+        leased.clear();
+        synchronized (dedicated) {
+            for (DataSourcePool.Lease lease : dedicated) {
+                if (stopped) {
+                    pool.release(lease);
+                } else {
+                    pool.discard(lease);
+                }
+            }
+            dedicated.clear();
+        }
+    }
+
+    /**
+     * Give back a connection leased by {@link #dedicatedConnection(String)} before the end of the run. Called from the
+     * threads of the fan-outs, so it does not lock the data sources which may be waiting for them.
+     */
+    private void releaseDedicated(Connection connection) {
+        synchronized (dedicated) {
+            Iterator<DataSourcePool.Lease> it = dedicated.iterator();
+            while (it.hasNext()) {
+                DataSourcePool.Lease lease = it.next();
+                if (lease.getConnection() == connection) {
+                    it.remove();
+                    pool.release(lease);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Producer of the rows of a query, cancelling the running statement when the fan-out is closed.
+     */
+    private static class QueryProducer implements FanOut.Producer {
+        private final String name;
+        private final Connection connection;
+        private final String query;
+        private volatile Statement statement = null;
+
+        private QueryProducer(String name, Connection connection, String query) {
+            this.name = name;
+            this.connection = connection;
+            this.query = query;
+        }
+
+        @Override
+        public void produce(Consumer<Object> emit) throws SQLException {
+            try (Statement created = connection.createStatement()) {
+                statement = created;
+                created.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = created.executeQuery(query)) {
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    int columnCount = metaData.getColumnCount();
+                    while (resultSet.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>(columnCount * 2);
+                        row.put(DATASOURCE_KEY, name);
+                        for (int i = 1; i <= columnCount; i++) {
+                            row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+                        }
+                        emit.accept(row);
+                    }
+                }
+            } finally {
+                statement = null;
+            }
+        }
+
+        @Override
+        public void cancel() {
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException e) {
+                    // The statement has ended in the meantime, or the driver does not support the cancellation
+                }
+            }
+        }
+    }
+
+    private static class Leased {
+        private final DataSourcePool.Lease lease;
+        private final Sql sql;
+
+        private Leased(DataSourcePool.Lease lease, Sql sql) {
+            this.lease = lease;
+            this.sql = sql;
+        }
+    }
+}
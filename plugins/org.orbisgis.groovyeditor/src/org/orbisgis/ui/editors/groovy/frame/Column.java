@@ -0,0 +1,88 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Column of a {@link Frame}, holding its values in arrays instead of an object by value.
+ */
+public abstract class Column {
+
+    private final String name;
+
+    protected Column(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of values
+     */
+    public abstract int size();
+
+    /**
+     * @param row the index of a row
+     * @return the value of the row, boxed
+     */
+    public abstract Object get(int row);
+
+    /**
+     * @param row the index of a row
+     * @return true if the value of the row is null
+     */
+    public abstract boolean isNull(int row);
+
+    /**
+     * @param rows the indexes of the kept rows
+     * @return a column holding the values of the given rows
+     */
+    public abstract Column select(int[] rows);
+
+    /**
+     * @return an estimation of the memory used by the values, in bytes
+     */
+    public abstract long getMemory();
+
+    /**
+     * @param row the index of a row
+     * @return the value of the row, for {@code column[row]}
+     */
+    public Object getAt(int row) {
+        return get(row);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + name + " (" + size() + " values)";
+    }
+
+    /**
+     * Builder of a column filled from a result set, one row at a time.
+     */
+    interface Builder {
+        void read(ResultSet resultSet, int index) throws SQLException;
+
+        Column build();
+    }
+}
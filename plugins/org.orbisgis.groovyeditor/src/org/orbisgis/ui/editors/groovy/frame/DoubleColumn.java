@@ -0,0 +1,94 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Column of decimal values stored in a {@code double} array.
+ */
+public class DoubleColumn extends NumberColumn {
+
+    private final double[] values;
+
+    public DoubleColumn(String name, double[] values, BitSet nulls) {
+        super(name, nulls);
+        this.values = values;
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return nulls.get(row) ? Double.NaN : values[row];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return nulls.get(row) ? null : values[row];
+    }
+
+    @Override
+    public Column select(int[] rows) {
+        double[] selected = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            selected[i] = values[rows[i]];
+        }
+        return new DoubleColumn(getName(), selected, selectNulls(rows));
+    }
+
+    @Override
+    public long getMemory() {
+        return 8L * values.length + nulls.size() / 8;
+    }
+
+    static class Builder implements Column.Builder {
+        private final String name;
+        private double[] values = new double[1024];
+        private final BitSet nulls = new BitSet();
+        private int size = 0;
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void read(ResultSet resultSet, int index) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = resultSet.getDouble(index);
+            if (resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        @Override
+        public Column build() {
+            return new DoubleColumn(name, Arrays.copyOf(values, size), nulls);
+        }
+    }
+}
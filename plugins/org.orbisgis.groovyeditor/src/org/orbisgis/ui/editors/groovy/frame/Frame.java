@@ -0,0 +1,399 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar table of a query result, available in the scripts through the {@code frame} variable :
+ * <pre>
+ * def buildings = frame.read(datasources.h2gis, "SELECT type, height, the_geom FROM buildings")
+ * def tall = buildings.where("height") { it > 20 }
+ * println tall.groupBy("type").mean("height")
+ * </pre>
+ * The values are stored by column in arrays : the integers and the decimals in primitive arrays, the strings encoded
+ * with a dictionary and the geometries packed as EWKB with their envelopes, so a row costs a few bytes by column
+ * instead of a map of boxed values.
+ *
+ * The filters and the aggregates process the rows by chunks of {@value #CHUNK_SIZE}, in parallel on the common
+ * fork-join pool when there are several chunks, so the predicates given to the filters must not modify shared state.
+ */
+public class Frame {
+
+    /**
+     * Number of rows processed by a task of the parallel operations.
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private final List<Column> columns;
+    private final Map<String, Column> columnsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final int size;
+
+    /**
+     * Create a frame.
+     *
+     * @param columns the columns, all of the same size
+     */
+    public Frame(List<Column> columns) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.size = columns.isEmpty() ? 0 : columns.get(0).size();
+        for (Column column : columns) {
+            if (column.size() != size) {
+                throw new IllegalArgumentException("The column " + column.getName() + " has " + column.size() +
+                        " values instead of " + size + ".");
+            }
+            columnsByName.putIfAbsent(column.getName(), column);
+        }
+    }
+
+    /**
+     * Read all the rows of a result set.
+     *
+     * @param resultSet the result set
+     * @return the frame
+     * @throws SQLException if the result set cannot be read
+     */
+    public static Frame read(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        Column.Builder[] builders = new Column.Builder[metaData.getColumnCount()];
+        for (int i = 0; i < builders.length; i++) {
+            builders[i] = builder(metaData.getColumnLabel(i + 1), metaData.getColumnType(i + 1),
+                    metaData.getColumnTypeName(i + 1));
+        }
+        while (resultSet.next()) {
+            for (int i = 0; i < builders.length; i++) {
+                builders[i].read(resultSet, i + 1);
+            }
+        }
+        List<Column> columns = new ArrayList<>(builders.length);
+        for (Column.Builder builder : builders) {
+            columns.add(builder.build());
+        }
+        return new Frame(columns);
+    }
+
+    /**
+     * Choose the storage of a column. The NUMERIC and DECIMAL values are stored as doubles.
+     */
+    private static Column.Builder builder(String name, int type, String typeName) {
+        if (typeName != null && typeName.toUpperCase(Locale.ROOT).startsWith("GEOMETRY")) {
+            return new GeometryColumn.Builder(name);
+        }
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return new LongColumn.Builder(name);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return new DoubleColumn.Builder(name);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringColumn.Builder(name);
+            default:
+                return new ObjectColumn.Builder(name);
+        }
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public List<String> getColumnNames() {
+        return columns.stream().map(Column::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * @param name the name of a column, case insensitive
+     * @return the column
+     */
+    public Column column(String name) {
+        Column column = columnsByName.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("No column named '" + name + "', the columns are " +
+                    getColumnNames() + ".");
+        }
+        return column;
+    }
+
+    /**
+     * @param name the name of a column, case insensitive
+     * @return the column, for {@code frame["height"]}
+     */
+    public Column getAt(String name) {
+        return column(name);
+    }
+
+    /**
+     * @param row the index of a row
+     * @return a copy of the row
+     */
+    public Map<String, Object> row(int row) {
+        Map<String, Object> values = new LinkedHashMap<>(columns.size() * 2);
+        for (Column column : columns) {
+            values.put(column.getName(), column.get(row));
+        }
+        return values;
+    }
+
+    /**
+     * @param rows the indexes of the kept rows
+     * @return a frame holding the given rows
+     */
+    public Frame select(int[] rows) {
+        List<Column> selected = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            selected.add(column.select(rows));
+        }
+        return new Frame(selected);
+    }
+
+    /**
+     * Keep the rows accepted by a predicate.
+     *
+     * @param predicate the predicate receiving the index of a row
+     * @return the accepted rows
+     */
+    public Frame where(IntPredicate predicate) {
+        return select(matches(size, predicate));
+    }
+
+    /**
+     * Keep the rows whose numeric value is accepted by a predicate. The null values are not accepted.
+     *
+     * @param name the name of a numeric column
+     * @param predicate the predicate receiving the value of a row
+     * @return the accepted rows
+     */
+    public Frame where(String name, DoublePredicate predicate) {
+        NumberColumn column = numberColumn(name);
+        return where(row -> !column.isNull(row) && predicate.test(column.getDouble(row)));
+    }
+
+    /**
+     * Keep the rows having the given value. The strings are compared through their dictionary index.
+     *
+     * @param name the name of a column
+     * @param value the value
+     * @return the rows having the value
+     */
+    public Frame whereEquals(String name, Object value) {
+        Column column = column(name);
+        if (column instanceof StringColumn && value != null) {
+            StringColumn strings = (StringColumn) column;
+            int code = strings.codeOf(value.toString());
+            return code < 0 ? select(new int[0]) : where(row -> strings.getCode(row) == code);
+        }
+        if (column instanceof NumberColumn && value instanceof Number) {
+            NumberColumn numbers = (NumberColumn) column;
+            double number = ((Number) value).doubleValue();
+            return where(row -> !numbers.isNull(row) && numbers.getDouble(row) == number);
+        }
+        return where(row -> value == null ? column.isNull(row) : value.equals(column.get(row)));
+    }
+
+    /**
+     * Keep the rows whose geometry envelope intersects an area, without decoding the geometries.
+     *
+     * @param name the name of a geometry column
+     * @param minX the minimum x of the area
+     * @param minY the minimum y of the area
+     * @param maxX the maximum x of the area
+     * @param maxY the maximum y of the area
+     * @return the rows intersecting the area
+     */
+    public Frame whereIntersects(String name, double minX, double minY, double maxX, double maxY) {
+        Column column = column(name);
+        if (!(column instanceof GeometryColumn)) {
+            throw new IllegalArgumentException("The column '" + name + "' is not a geometry column.");
+        }
+        GeometryColumn geometries = (GeometryColumn) column;
+        return where(row -> geometries.intersects(row, minX, minY, maxX, maxY));
+    }
+
+    /**
+     * @param name the name of a column
+     * @return the number of values which are not null
+     */
+    public long count(String name) {
+        Column column = column(name);
+        return matches(size, row -> !column.isNull(row)).length;
+    }
+
+    public double sum(String name) {
+        return stats(numberColumn(name)).sum;
+    }
+
+    public double mean(String name) {
+        Stats stats = stats(numberColumn(name));
+        return stats.count == 0 ? Double.NaN : stats.sum / stats.count;
+    }
+
+    public double min(String name) {
+        Stats stats = stats(numberColumn(name));
+        return stats.count == 0 ? Double.NaN : stats.min;
+    }
+
+    public double max(String name) {
+        Stats stats = stats(numberColumn(name));
+        return stats.count == 0 ? Double.NaN : stats.max;
+    }
+
+    /**
+     * Group the rows by the values of a column.
+     *
+     * @param name the name of the key column
+     * @return the groups, to aggregate
+     */
+    public Grouping groupBy(String name) {
+        return new Grouping(this, column(name));
+    }
+
+    /**
+     * @return an estimation of the memory used by the values, in bytes
+     */
+    public long getMemory() {
+        long memory = 0;
+        for (Column column : columns) {
+            memory += column.getMemory();
+        }
+        return memory;
+    }
+
+    NumberColumn numberColumn(String name) {
+        Column column = column(name);
+        if (!(column instanceof NumberColumn)) {
+            throw new IllegalArgumentException("The column '" + name + "' is not a numeric column.");
+        }
+        return (NumberColumn) column;
+    }
+
+    /**
+     * Find the rows accepted by a predicate, by chunks processed in parallel.
+     *
+     * @param size the number of rows
+     * @param predicate the predicate
+     * @return the indexes of the accepted rows, in increasing order
+     */
+    static int[] matches(int size, IntPredicate predicate) {
+        List<int[]> chunks = chunks(size).mapToObj(chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(size, start + CHUNK_SIZE);
+            int[] rows = new int[end - start];
+            int count = 0;
+            for (int row = start; row < end; row++) {
+                if (predicate.test(row)) {
+                    rows[count++] = row;
+                }
+            }
+            return Arrays.copyOf(rows, count);
+        }).collect(Collectors.toList());
+        int[] rows = new int[chunks.stream().mapToInt(chunk -> chunk.length).sum()];
+        int position = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, rows, position, chunk.length);
+            position += chunk.length;
+        }
+        return rows;
+    }
+
+    /**
+     * @param size the number of rows
+     * @return the indexes of the chunks of rows, a parallel stream if there are several chunks
+     */
+    static IntStream chunks(int size) {
+        int count = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunks = IntStream.range(0, count);
+        return count > 1 ? chunks.parallel() : chunks;
+    }
+
+    private Stats stats(NumberColumn column) {
+        return chunks(size).mapToObj(chunk -> {
+            Stats stats = new Stats();
+            int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+            for (int row = chunk * CHUNK_SIZE; row < end; row++) {
+                if (!column.isNull(row)) {
+                    stats.add(column.getDouble(row));
+                }
+            }
+            return stats;
+        }).reduce(new Stats(), Stats::merge);
+    }
+
+    @Override
+    public String toString() {
+        return "Frame of " + size + " rows " + getColumnNames() + ", " + getMemory() / 1024 + " KB";
+    }
+
+    /**
+     * Sum, count, minimum and maximum of values.
+     */
+    static class Stats {
+        double sum = 0;
+        long count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            sum += value;
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        Stats merge(Stats other) {
+            Stats merged = new Stats();
+            merged.sum = sum + other.sum;
+            merged.count = count + other.count;
+            merged.min = Math.min(min, other.min);
+            merged.max = Math.max(max, other.max);
+            return merged;
+        }
+    }
+}
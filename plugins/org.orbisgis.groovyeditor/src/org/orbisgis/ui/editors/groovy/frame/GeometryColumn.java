@@ -0,0 +1,174 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Column of geometries packed as EWKB into a single byte array, with the envelope of each geometry in a
+ * {@code double} array. The envelope filters read the envelopes only, and a geometry is decoded when it is read.
+ */
+public class GeometryColumn extends Column {
+
+    private final byte[] data;
+    private final int[] offsets;
+    private final double[] envelopes;
+
+    /**
+     * @param name the name of the column
+     * @param data the EWKB of all the geometries
+     * @param offsets the start of each geometry in the data, followed by the data length ; equal starts for null
+     * @param envelopes the minX, minY, maxX and maxY of each geometry, NaN for the null and empty geometries
+     */
+    public GeometryColumn(String name, byte[] data, int[] offsets, double[] envelopes) {
+        super(name);
+        this.data = data;
+        this.offsets = offsets;
+        this.envelopes = envelopes;
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public Object get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        try {
+            return new WKBReader().read(Arrays.copyOfRange(data, offsets[row], offsets[row + 1]));
+        } catch (ParseException e) {
+            throw new IllegalStateException("Unable to decode the geometry of the row " + row + ".", e);
+        }
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return offsets[row] == offsets[row + 1];
+    }
+
+    /**
+     * @param row the index of a row
+     * @param minX the minimum x of the searched area
+     * @param minY the minimum y of the searched area
+     * @param maxX the maximum x of the searched area
+     * @param maxY the maximum y of the searched area
+     * @return true if the envelope of the geometry of the row intersects the area
+     */
+    public boolean intersects(int row, double minX, double minY, double maxX, double maxY) {
+        int i = row * 4;
+        // False for the NaN envelopes
+        return envelopes[i] <= maxX && envelopes[i + 2] >= minX && envelopes[i + 1] <= maxY &&
+                envelopes[i + 3] >= minY;
+    }
+
+    @Override
+    public Column select(int[] rows) {
+        int length = 0;
+        for (int row : rows) {
+            length += offsets[row + 1] - offsets[row];
+        }
+        byte[] selectedData = new byte[length];
+        int[] selectedOffsets = new int[rows.length + 1];
+        double[] selectedEnvelopes = new double[rows.length * 4];
+        int position = 0;
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            int size = offsets[row + 1] - offsets[row];
+            System.arraycopy(data, offsets[row], selectedData, position, size);
+            System.arraycopy(envelopes, row * 4, selectedEnvelopes, i * 4, 4);
+            selectedOffsets[i] = position;
+            position += size;
+        }
+        selectedOffsets[rows.length] = position;
+        return new GeometryColumn(getName(), selectedData, selectedOffsets, selectedEnvelopes);
+    }
+
+    @Override
+    public long getMemory() {
+        return data.length + 4L * offsets.length + 8L * envelopes.length;
+    }
+
+    static class Builder implements Column.Builder {
+        private final String name;
+        private byte[] data = new byte[64 * 1024];
+        private int[] offsets = new int[1025];
+        private double[] envelopes = new double[4 * 1024];
+        private int size = 0;
+        private final WKBWriter writer2D = new WKBWriter(2, true);
+        private final WKBWriter writer3D = new WKBWriter(3, true);
+        private final WKBReader reader = new WKBReader();
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void read(ResultSet resultSet, int index) throws SQLException {
+            Geometry geometry = toGeometry(resultSet.getObject(index));
+            if (size + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                envelopes = Arrays.copyOf(envelopes, envelopes.length * 2);
+            }
+            int start = offsets[size];
+            Envelope envelope = geometry == null || geometry.isEmpty() ? null : geometry.getEnvelopeInternal();
+            envelopes[size * 4] = envelope == null ? Double.NaN : envelope.getMinX();
+            envelopes[size * 4 + 1] = envelope == null ? Double.NaN : envelope.getMinY();
+            envelopes[size * 4 + 2] = envelope == null ? Double.NaN : envelope.getMaxX();
+            envelopes[size * 4 + 3] = envelope == null ? Double.NaN : envelope.getMaxY();
+            if (geometry != null) {
+                boolean hasZ = !geometry.isEmpty() && !Double.isNaN(geometry.getCoordinate().getZ());
+                byte[] wkb = (hasZ ? writer3D : writer2D).write(geometry);
+                if (start + wkb.length > data.length) {
+                    data = Arrays.copyOf(data, Math.max(data.length * 2, start + wkb.length));
+                }
+                System.arraycopy(wkb, 0, data, start, wkb.length);
+                start += wkb.length;
+            }
+            offsets[++size] = start;
+        }
+
+        private Geometry toGeometry(Object value) throws SQLException {
+            if (value == null || value instanceof Geometry) {
+                return (Geometry) value;
+            }
+            try {
+                return reader.read(value instanceof byte[] ? (byte[]) value : WKBReader.hexToBytes(value.toString()));
+            } catch (ParseException | RuntimeException e) {
+                throw new SQLException("Unable to decode the geometry of the column " + name + ".", e);
+            }
+        }
+
+        @Override
+        public Column build() {
+            return new GeometryColumn(name, Arrays.copyOf(data, offsets[size]), Arrays.copyOf(offsets, size + 1),
+                    Arrays.copyOf(envelopes, size * 4));
+        }
+    }
+}
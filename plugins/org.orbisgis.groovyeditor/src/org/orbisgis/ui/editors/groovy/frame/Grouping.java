@@ -0,0 +1,184 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Rows of a {@link Frame} grouped by the values of a key column. Each aggregate returns a frame with a row by group :
+ * the key column followed by the aggregated column. The strings are grouped through their dictionary index.
+ */
+public class Grouping {
+
+    private final Frame frame;
+    private final Column key;
+    private final int[] groups;
+    private final int[] firstRows;
+
+    Grouping(Frame frame, Column key) {
+        this.frame = frame;
+        this.key = key;
+        int size = frame.size();
+        groups = new int[size];
+        List<Integer> first = new ArrayList<>();
+        if (key instanceof StringColumn) {
+            StringColumn strings = (StringColumn) key;
+            // Group of each dictionary index, the last slot being the null strings
+            int[] codeGroups = new int[strings.getDictionary().size() + 1];
+            Arrays.fill(codeGroups, -1);
+            for (int row = 0; row < size; row++) {
+                int code = strings.getCode(row);
+                int slot = code < 0 ? codeGroups.length - 1 : code;
+                if (codeGroups[slot] < 0) {
+                    codeGroups[slot] = first.size();
+                    first.add(row);
+                }
+                groups[row] = codeGroups[slot];
+            }
+        } else {
+            Map<Object, Integer> keyGroups = new HashMap<>();
+            for (int row = 0; row < size; row++) {
+                int next = first.size();
+                int group = keyGroups.computeIfAbsent(key.get(row), value -> next);
+                if (group == next) {
+                    first.add(row);
+                }
+                groups[row] = group;
+            }
+        }
+        firstRows = first.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the number of groups
+     */
+    public int size() {
+        return firstRows.length;
+    }
+
+    /**
+     * @return the number of rows of each group, in the column {@code count}
+     */
+    public Frame count() {
+        long[] counts = new long[firstRows.length];
+        for (int group : groups) {
+            counts[group]++;
+        }
+        return result(new LongColumn("count", counts, new BitSet()));
+    }
+
+    /**
+     * @param name the name of a numeric column
+     * @return the sum of the column by group, in the column {@code sum_<name>}
+     */
+    public Frame sum(String name) {
+        Frame.Stats[] stats = stats(name);
+        double[] values = new double[stats.length];
+        for (int i = 0; i < stats.length; i++) {
+            values[i] = stats[i].sum;
+        }
+        return result(new DoubleColumn("sum_" + name, values, new BitSet()));
+    }
+
+    /**
+     * @param name the name of a numeric column
+     * @return the mean of the column by group, in the column {@code mean_<name>}
+     */
+    public Frame mean(String name) {
+        Frame.Stats[] stats = stats(name);
+        return aggregate("mean_" + name, stats, i -> stats[i].sum / stats[i].count);
+    }
+
+    /**
+     * @param name the name of a numeric column
+     * @return the minimum of the column by group, in the column {@code min_<name>}
+     */
+    public Frame min(String name) {
+        Frame.Stats[] stats = stats(name);
+        return aggregate("min_" + name, stats, i -> stats[i].min);
+    }
+
+    /**
+     * @param name the name of a numeric column
+     * @return the maximum of the column by group, in the column {@code max_<name>}
+     */
+    public Frame max(String name) {
+        Frame.Stats[] stats = stats(name);
+        return aggregate("max_" + name, stats, i -> stats[i].max);
+    }
+
+    /**
+     * Build an aggregated column, null for the groups without values.
+     */
+    private Frame aggregate(String name, Frame.Stats[] stats, IntToDoubleFunction value) {
+        double[] values = new double[stats.length];
+        BitSet nulls = new BitSet();
+        for (int i = 0; i < stats.length; i++) {
+            if (stats[i].count == 0) {
+                nulls.set(i);
+            } else {
+                values[i] = value.applyAsDouble(i);
+            }
+        }
+        return result(new DoubleColumn(name, values, nulls));
+    }
+
+    /**
+     * Compute the statistics of each group, by chunks of rows processed in parallel.
+     */
+    private Frame.Stats[] stats(String name) {
+        NumberColumn column = frame.numberColumn(name);
+        int size = frame.size();
+        int groupCount = firstRows.length;
+        return Frame.chunks(size).mapToObj(chunk -> {
+            Frame.Stats[] stats = newStats(groupCount);
+            int end = Math.min(size, (chunk + 1) * Frame.CHUNK_SIZE);
+            for (int row = chunk * Frame.CHUNK_SIZE; row < end; row++) {
+                if (!column.isNull(row)) {
+                    stats[groups[row]].add(column.getDouble(row));
+                }
+            }
+            return stats;
+        }).reduce(newStats(groupCount), (a, b) -> {
+            Frame.Stats[] merged = new Frame.Stats[groupCount];
+            for (int i = 0; i < groupCount; i++) {
+                merged[i] = a[i].merge(b[i]);
+            }
+            return merged;
+        });
+    }
+
+    private static Frame.Stats[] newStats(int count) {
+        Frame.Stats[] stats = new Frame.Stats[count];
+        for (int i = 0; i < count; i++) {
+            stats[i] = new Frame.Stats();
+        }
+        return stats;
+    }
+
+    private Frame result(Column aggregated) {
+        return new Frame(Arrays.asList(key.select(firstRows), aggregated));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Column of integer values stored in a {@code long} array.
+ */
+public class LongColumn extends NumberColumn {
+
+    private final long[] values;
+
+    public LongColumn(String name, long[] values, BitSet nulls) {
+        super(name, nulls);
+        this.values = values;
+    }
+
+    public long getLong(int row) {
+        return values[row];
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return nulls.get(row) ? Double.NaN : values[row];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return nulls.get(row) ? null : values[row];
+    }
+
+    @Override
+    public Column select(int[] rows) {
+        long[] selected = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            selected[i] = values[rows[i]];
+        }
+        return new LongColumn(getName(), selected, selectNulls(rows));
+    }
+
+    @Override
+    public long getMemory() {
+        return 8L * values.length + nulls.size() / 8;
+    }
+
+    static class Builder implements Column.Builder {
+        private final String name;
+        private long[] values = new long[1024];
+        private final BitSet nulls = new BitSet();
+        private int size = 0;
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void read(ResultSet resultSet, int index) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = resultSet.getLong(index);
+            if (resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        @Override
+        public Column build() {
+            return new LongColumn(name, Arrays.copyOf(values, size), nulls);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.util.BitSet;
+
+/**
+ * Numeric column, read as doubles by the filters and the aggregates.
+ */
+public abstract class NumberColumn extends Column {
+
+    protected final BitSet nulls;
+
+    protected NumberColumn(String name, BitSet nulls) {
+        super(name);
+        this.nulls = nulls;
+    }
+
+    /**
+     * @param row the index of a row
+     * @return the value of the row, NaN if it is null
+     */
+    public abstract double getDouble(int row);
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    protected BitSet selectNulls(int[] rows) {
+        BitSet selected = new BitSet();
+        if (!nulls.isEmpty()) {
+            for (int i = 0; i < rows.length; i++) {
+                if (nulls.get(rows[i])) {
+                    selected.set(i);
+                }
+            }
+        }
+        return selected;
+    }
+}
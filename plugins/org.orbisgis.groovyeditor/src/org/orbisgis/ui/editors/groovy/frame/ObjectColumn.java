@@ -0,0 +1,89 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Column of the values which have no specific storage, like the dates, kept as objects.
+ */
+public class ObjectColumn extends Column {
+
+    private final Object[] values;
+
+    public ObjectColumn(String name, Object[] values) {
+        super(name);
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return values[row] == null;
+    }
+
+    @Override
+    public Column select(int[] rows) {
+        Object[] selected = new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            selected[i] = values[rows[i]];
+        }
+        return new ObjectColumn(getName(), selected);
+    }
+
+    @Override
+    public long getMemory() {
+        // Reference and a small object by value
+        return 32L * values.length;
+    }
+
+    static class Builder implements Column.Builder {
+        private final String name;
+        private Object[] values = new Object[1024];
+        private int size = 0;
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void read(ResultSet resultSet, int index) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = resultSet.getObject(index);
+        }
+
+        @Override
+        public Column build() {
+            return new ObjectColumn(name, Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import org.orbisgis.ui.editors.groovy.datasource.ScriptCursors;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Factory of the {@link Frame}s of a script run, available in the binding as the {@code frame} variable. The query
+ * results are read with the forward-only cursors of {@link ScriptCursors}, which take the same options.
+ */
+public class ScriptFrames {
+
+    private final ScriptCursors cursors;
+
+    /**
+     * Create the factory of a script run.
+     *
+     * @param cursors the cursors of the run
+     */
+    public ScriptFrames(ScriptCursors cursors) {
+        this.cursors = cursors;
+    }
+
+    public Frame read(Object target, String query) throws SQLException {
+        return read(Collections.emptyMap(), target, query, Collections.emptyList());
+    }
+
+    public Frame read(Map<String, ?> options, Object target, String query) throws SQLException {
+        return read(options, target, query, Collections.emptyList());
+    }
+
+    public Frame read(Object target, String query, List<?> params) throws SQLException {
+        return read(Collections.emptyMap(), target, query, params);
+    }
+
+    /**
+     * Read the result of a query into a frame.
+     *
+     * @param options the options of the cursor
+     * @param target a {@link groovy.sql.Sql}, a {@link java.sql.Connection} or the name of a data source
+     * @param query the query
+     * @param params the parameters of the query
+     * @return the frame
+     * @throws SQLException if the query fails
+     */
+    public Frame read(Map<String, ?> options, Object target, String query, List<?> params) throws SQLException {
+        return cursors.query(options, target, query, params, Frame::read);
+    }
+
+    /**
+     * Read the remaining rows of a result set into a frame.
+     *
+     * @param resultSet the result set
+     * @return the frame
+     * @throws SQLException if the result set cannot be read
+     */
+    public Frame read(ResultSet resultSet) throws SQLException {
+        return Frame.read(resultSet);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column of strings encoded with a dictionary : each distinct string is stored once and the rows hold the index of
+ * their string in an {@code int} array, -1 for null. The comparisons and the groupings are done on the indexes.
+ */
+public class StringColumn extends Column {
+
+    private final int[] codes;
+    private final String[] dictionary;
+
+    public StringColumn(String name, int[] codes, String[] dictionary) {
+        super(name);
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @param row the index of a row
+     * @return the index of the string of the row in the dictionary, -1 if it is null
+     */
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    /**
+     * @param value a string
+     * @return the index of the string in the dictionary, -1 if the column does not contain it
+     */
+    public int codeOf(String value) {
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the distinct strings of the column
+     */
+    public List<String> getDictionary() {
+        return Arrays.asList(dictionary);
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        int code = codes[row];
+        return code < 0 ? null : dictionary[code];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return codes[row] < 0;
+    }
+
+    @Override
+    public Column select(int[] rows) {
+        int[] selected = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            selected[i] = codes[rows[i]];
+        }
+        // The dictionary is shared, it may contain strings which are no more used
+        return new StringColumn(getName(), selected, dictionary);
+    }
+
+    @Override
+    public long getMemory() {
+        long memory = 4L * codes.length;
+        for (String value : dictionary) {
+            memory += 40 + 2L * value.length();
+        }
+        return memory;
+    }
+
+    static class Builder implements Column.Builder {
+        private final String name;
+        private int[] codes = new int[1024];
+        private final Map<String, Integer> lookup = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int size = 0;
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void read(ResultSet resultSet, int index) throws SQLException {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            String value = resultSet.getString(index);
+            int code = -1;
+            if (value != null) {
+                code = lookup.computeIfAbsent(value, key -> {
+                    dictionary.add(key);
+                    return dictionary.size() - 1;
+                });
+            }
+            codes[size++] = code;
+        }
+
+        @Override
+        public Column build() {
+            return new StringColumn(name, Arrays.copyOf(codes, size), dictionary.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP. 
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser 
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.handlers;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.handlers.HandlerUtil;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.GroovyEditorCommands;
+import org.orbisgis.ui.editors.groovy.GroovyOutputConsole.GroovyConsoleContent;
+import org.orbisgis.ui.editors.groovy.ui.RunQueueDialog;
+
+import java.nio.file.Paths;
+
+/**
+ * Handler of the groovy output console commands, which do not need an active groovy editor.
+ */
+public class GroovyConsoleActionHandler extends AbstractHandler {
+
+    private static final Logger LOGGER = new Logger(GroovyConsoleActionHandler.class);
+
+    @Override
+    public Object execute(ExecutionEvent executionEvent) {
+        String actionId = executionEvent.getCommand().getId();
+        switch (actionId) {
+            case GroovyEditorCommands.CMD_OUTPUT_HISTORY:
+                GroovyConsoleContent.showHistory();
+                break;
+            case GroovyEditorCommands.CMD_OUTPUT_EXPORT:
+                Shell shell = HandlerUtil.getActiveShell(executionEvent);
+                FileDialog dialog = new FileDialog(shell, SWT.SAVE);
+                dialog.setFilterExtensions(new String[]{"*.log", "*.txt", "*.*"});
+                dialog.setOverwrite(true);
+                String result = dialog.open();
+                if (result != null) {
+                    GroovyConsoleContent.exportOutput(Paths.get(result));
+                }
+                break;
+            case GroovyEditorCommands.CMD_RUN_QUEUE:
+                new RunQueueDialog(HandlerUtil.getActiveShell(executionEvent)).open();
+                break;
+            default:
+                LOGGER.error("Unsupported Groovy console command: " + actionId);
+                break;
+        }
+        return null;
+    }
+}
@@ -37,6 +37,7 @@ import org.orbisgis.ui.editors.groovy.ClassPathHandler;
 import org.orbisgis.ui.editors.groovy.GroovyEditor;
 import org.orbisgis.ui.editors.groovy.GroovyEditorCommands;
 import org.orbisgis.ui.editors.groovy.GroovyOutputConsole.GroovyConsoleContent;
+import org.orbisgis.ui.editors.groovy.datasource.DataSourcePool;
 
 public class GroovyEditorActionHandler extends AbstractHandler {
 
@@ -55,17 +56,52 @@ public class GroovyEditorActionHandler extends AbstractHandler {
                 editor.clear();
                 break;
             case GroovyEditorCommands.CMD_EXECUTE_SCRIPT:
+                refreshDataSources(executionEvent);
                 editor.execute();
                 break;
             case GroovyEditorCommands.CMD_EXECUTE_SELECTION:
+                refreshDataSources(executionEvent);
                 editor.executeSelection();
                 break;
+            case GroovyEditorCommands.CMD_EXECUTE_PROFILED:
+                refreshDataSources(executionEvent);
+                editor.executeProfiled();
+                break;
+            case GroovyEditorCommands.CMD_STATIC_COMPILATION:
+                editor.toggleStaticCompilation();
+                break;
+            case GroovyEditorCommands.CMD_COMPARE_COMPILATION:
+                editor.compareCompilationModes();
+                break;
+            case GroovyEditorCommands.CMD_WORKER_MODE:
+                editor.toggleWorkerMode();
+                break;
+            case GroovyEditorCommands.CMD_RUN_SET:
+                refreshDataSources(executionEvent);
+                editor.executeRunSet();
+                break;
+            case GroovyEditorCommands.CMD_EXECUTE_CELLS:
+                refreshDataSources(executionEvent);
+                editor.executeCells();
+                break;
             case GroovyEditorCommands.CMD_GROOVY_DELETE_OUTPUT:
             	GroovyConsoleContent.writeIntoConsole("ERASE");
                 break;
             case GroovyEditorCommands.CMD_STOP_PROCESS:
                 editor.stop();
                 break;
+            case GroovyEditorCommands.CMD_SESSION_MODE:
+                editor.toggleSessionMode();
+                break;
+            case GroovyEditorCommands.CMD_SESSION_RESET:
+                editor.resetSession();
+                break;
+            case GroovyEditorCommands.CMD_SESSION_RESTART:
+                editor.restartSession();
+                break;
+            case GroovyEditorCommands.CMD_SESSION_MEMORY:
+                editor.showSessionMemory();
+                break;
             case GroovyEditorCommands.CMD_LIST_CLASSPATHS:
                 ClassPathHandler.showClassPaths();
                 break;
@@ -83,6 +119,13 @@ public class GroovyEditorActionHandler extends AbstractHandler {
         return null;
     }
 
+    /**
+     * Give the data sources of the database navigator to the scripts, through their {@code datasources} variable.
+     */
+    private void refreshDataSources(ExecutionEvent event) {
+        DataSourcePool.getInstance().setContainers(getContainers(event));
+    }
+
     private List<DBPDataSourceContainer> getContainers(ExecutionEvent event) {
         List<DBPDataSourceContainer> list = new ArrayList<>();
         IWorkbenchWindow window = HandlerUtil.getActiveWorkbenchWindow(event);
@@ -0,0 +1,269 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.memo;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.runtime.InvokerInvocationException;
+import org.orbisgis.ui.editors.groovy.Sha256;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of the results of the {@link DiskMemoized} methods. Each result is serialized into its own file, named by
+ * the hash of the method signature, of the method source and of the serialized arguments, so the results are shared by
+ * the runs, the sessions and the worker JVMs using the same folder.
+ *
+ * When the folder exceeds its maximum size, the least recently used results are removed. This class only uses the JDK
+ * and groovy, so it can be used in a worker JVM.
+ */
+public class DiskMemoCache {
+
+    public static final String DIRECTORY_PROPERTY = "org.orbisgis.groovyeditor.memo.dir";
+    public static final String SIZE_PROPERTY = "org.orbisgis.groovyeditor.memo.size";
+
+    /**
+     * Maximum size of the cache folder in bytes, 512 MB by default.
+     */
+    static final long MAX_SIZE = Long.getLong(SIZE_PROPERTY, 512) * 1024 * 1024;
+
+    private static final String EXTENSION = ".memo";
+
+    private static final DiskMemoCache INSTANCE = new DiskMemoCache(Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+            Paths.get(System.getProperty("java.io.tmpdir"), "groovy-memo").toString())), MAX_SIZE);
+
+    private Path directory;
+    private final long maxSize;
+    private long size = -1;
+    private long hits = 0;
+    private long misses = 0;
+
+    DiskMemoCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public static DiskMemoCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Called by the code generated by the {@link MemoizeCustomizer} in place of the body of a memoized method.
+     *
+     * @param receiver the script, or its class for a static method
+     * @param method the name of the method holding the original body
+     * @param signature the signature of the memoized method
+     * @param sourceHash the hash of the source of the memoized method
+     * @param maxAge the number of seconds a result is kept, 0 for no limit
+     * @param args the arguments of the call
+     * @return the cached or computed result
+     * @throws Throwable the exception thrown by the method
+     */
+    public static Object call(Object receiver, String method, String signature, String sourceHash, long maxAge,
+                              Object[] args) throws Throwable {
+        return INSTANCE.memoize(receiver, method, signature, sourceHash, maxAge, args);
+    }
+
+    Object memoize(Object receiver, String method, String signature, String sourceHash, long maxAge,
+                   Object[] args) throws Throwable {
+        byte[] arguments = serialize(args);
+        if (arguments == null) {
+            return invoke(receiver, method, args);
+        }
+        String key = hash(signature, sourceHash, arguments);
+        Path file = getDirectory().resolve(key.substring(0, 2)).resolve(key + EXTENSION);
+        ClassLoader loader = receiver instanceof Class ? ((Class<?>) receiver).getClassLoader() :
+                receiver.getClass().getClassLoader();
+        if (Files.isRegularFile(file)) {
+            try {
+                long age = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+                if (maxAge <= 0 || age < maxAge * 1000) {
+                    Object result = deserialize(Files.readAllBytes(file), loader);
+                    if (maxAge <= 0) {
+                        // The modification time is the last use time of the results kept without limit
+                        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                    }
+                    count(true);
+                    return result;
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                // The result is computed again and replaces the unreadable or obsolete one
+            }
+        }
+        count(false);
+        Object result = invoke(receiver, method, args);
+        byte[] bytes = serialize(result);
+        if (bytes != null) {
+            store(file, bytes);
+        }
+        return result;
+    }
+
+    private static Object invoke(Object receiver, String method, Object[] args) throws Throwable {
+        try {
+            if (receiver instanceof Class) {
+                return InvokerHelper.invokeStaticMethod((Class<?>) receiver, method, args);
+            }
+            return InvokerHelper.invokeMethod(receiver, method, args);
+        } catch (InvokerInvocationException e) {
+            throw e.getCause();
+        }
+    }
+
+    private synchronized void count(boolean hit) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    /**
+     * Write a result, then remove the least recently used ones if the folder exceeds its maximum size.
+     */
+    private void store(Path file, byte[] bytes) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "memo", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                if (size < 0) {
+                    size = scanSize();
+                } else {
+                    size += bytes.length;
+                }
+                if (size > maxSize) {
+                    evict();
+                }
+            }
+        } catch (IOException e) {
+            // The result is not kept, the next run computes it again
+        }
+    }
+
+    private long scanSize() throws IOException {
+        try (Stream<Path> files = Files.walk(getDirectory())) {
+            return files.filter(path -> path.toString().endsWith(EXTENSION)).mapToLong(path -> path.toFile().length())
+                    .sum();
+        }
+    }
+
+    /**
+     * Remove the least recently used results until the folder is 10% below its maximum size.
+     */
+    private synchronized void evict() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(getDirectory())) {
+            files = stream.filter(path -> path.toString().endsWith(EXTENSION))
+                    .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .collect(Collectors.toList());
+        }
+        long total = files.stream().mapToLong(path -> path.toFile().length()).sum();
+        long target = maxSize - maxSize / 10;
+        for (Path path : files) {
+            if (total <= target) {
+                break;
+            }
+            long length = path.toFile().length();
+            if (Files.deleteIfExists(path)) {
+                total -= length;
+            }
+        }
+        size = total;
+    }
+
+    /**
+     * Remove all the results.
+     *
+     * @throws IOException if a result cannot be removed
+     */
+    public synchronized void clear() throws IOException {
+        if (Files.isDirectory(getDirectory())) {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(getDirectory())) {
+                files = stream.filter(path -> path.toString().endsWith(EXTENSION)).collect(Collectors.toList());
+            }
+            for (Path path : files) {
+                Files.deleteIfExists(path);
+            }
+        }
+        size = 0;
+    }
+
+    public synchronized Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Set the folder of the results, for example the groovy folder of the workspace.
+     *
+     * @param directory the folder of the results
+     */
+    public synchronized void setDirectory(Path directory) {
+        this.directory = directory;
+        size = -1;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @param value the value to serialize
+     * @return the serialized value, or null if the value is not serializable
+     */
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            // Including the NotSerializableException of the values which are not serializable
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes, ClassLoader loader) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ScriptObjectInputStream(new ByteArrayInputStream(bytes), loader)) {
+            return in.readObject();
+        }
+    }
+
+    private static String hash(String signature, String sourceHash, byte[] arguments) {
+        return Sha256.hex(signature.getBytes(StandardCharsets.UTF_8), sourceHash.getBytes(StandardCharsets.UTF_8),
+                arguments);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.memo;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation of the script methods whose results are kept in the {@link DiskMemoCache}, so a call with the same
+ * arguments returns the result computed by a previous run without executing the method :
+ * <pre>
+ * &#64;DiskMemoized
+ * def loadGrid(String path, double cellSize) {
+ *     ...
+ * }
+ * </pre>
+ * The result only depends on the arguments and on the source of the method, so the method should not depend on
+ * variables or on other methods which may change between runs. The arguments and the result must be serializable,
+ * otherwise the method is executed without cache.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface DiskMemoized {
+
+    /**
+     * @return the number of seconds a result is kept, 0 to keep it until it is evicted
+     */
+    long maxAge() default 0;
+}
@@ -0,0 +1,176 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.memo;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.ArrayExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.codehaus.groovy.syntax.SyntaxException;
+import org.orbisgis.ui.editors.groovy.Sha256;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compilation customizer memoizing the {@link DiskMemoized} methods : the body of each method is moved into a new
+ * method, and replaced by a call to {@link DiskMemoCache#call(Object, String, String, String, long, Object[])} which
+ * calls the new method only if the result is not in the cache.
+ */
+public class MemoizeCustomizer extends CompilationCustomizer {
+
+    private static final ClassNode ANNOTATION = ClassHelper.make(DiskMemoized.class);
+    private static final ClassNode CACHE = ClassHelper.make(DiskMemoCache.class);
+
+    public MemoizeCustomizer() {
+        super(CompilePhase.CANONICALIZATION);
+    }
+
+    /**
+     * Add the memoization to a compiler configuration, with the import of the {@link DiskMemoized} annotation so the
+     * scripts can use it without import.
+     *
+     * @param configuration the compiler configuration
+     * @return the configuration
+     */
+    public static CompilerConfiguration configure(CompilerConfiguration configuration) {
+        configuration.addCompilationCustomizers(new ImportCustomizer().addImports(DiskMemoized.class.getName()),
+                new MemoizeCustomizer());
+        return configuration;
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        List<String> lines = null;
+        for (MethodNode method : new ArrayList<>(classNode.getMethods())) {
+            List<AnnotationNode> annotations = method.getAnnotations(ANNOTATION);
+            if (annotations.isEmpty() || method.isAbstract() || method.getCode() == null) {
+                continue;
+            }
+            if (method.isVoidMethod()) {
+                source.addError(new SyntaxException("A @DiskMemoized method must return a value.",
+                        method.getLineNumber(), method.getColumnNumber()));
+                continue;
+            }
+            if (lines == null) {
+                lines = readLines(source);
+            }
+            memoize(classNode, method, annotations.get(0), sourceHash(lines, method.getName(), method));
+        }
+    }
+
+    private static void memoize(ClassNode classNode, MethodNode method, AnnotationNode annotation, String sourceHash) {
+        String name = "memoized$" + method.getName();
+        for (int i = 1; classNode.hasMethod(name, method.getParameters()); i++) {
+            name = "memoized$" + method.getName() + "$" + i;
+        }
+        MethodNode original = new MethodNode(name, method.isStatic() ? Modifier.PRIVATE | Modifier.STATIC :
+                Modifier.PROTECTED,
+                method.getReturnType(), method.getParameters(), method.getExceptions(), method.getCode());
+        original.setVariableScope(method.getVariableScope());
+        original.setSourcePosition(method);
+        classNode.addMethod(original);
+
+        List<Expression> args = new ArrayList<>();
+        for (Parameter parameter : method.getParameters()) {
+            args.add(new VariableExpression(parameter));
+        }
+        Expression maxAge = annotation.getMember("maxAge");
+        StaticMethodCallExpression call = new StaticMethodCallExpression(CACHE, "call", new ArgumentListExpression(
+                new Expression[]{
+                        method.isStatic() ? new ClassExpression(classNode) : VariableExpression.THIS_EXPRESSION,
+                        new ConstantExpression(name),
+                        new ConstantExpression(signature(method)),
+                        new ConstantExpression(sourceHash),
+                        maxAge != null ? new CastExpression(ClassHelper.long_TYPE, maxAge) :
+                                new ConstantExpression(0L, true),
+                        new ArrayExpression(ClassHelper.OBJECT_TYPE, args)}));
+        call.setSourcePosition(method);
+        BlockStatement body = new BlockStatement();
+        body.setVariableScope(method.getVariableScope());
+        body.addStatement(new ReturnStatement(new CastExpression(method.getReturnType(), call)));
+        method.setCode(body);
+    }
+
+    private static String signature(MethodNode method) {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        for (Parameter parameter : method.getParameters()) {
+            sb.append(parameter.getType().getName()).append(';');
+        }
+        return sb.append(')').append(method.getReturnType().getName()).toString();
+    }
+
+    /**
+     * Read the script source, which may not be available for the scripts compiled from a stream.
+     *
+     * @param source the source unit of the script
+     * @return the lines of the script, empty if its source is not available
+     */
+    public static List<String> readLines(SourceUnit source) {
+        try (Reader reader = source.getSource().getReader();
+             BufferedReader lines = new BufferedReader(reader)) {
+            return lines.lines().collect(Collectors.toList());
+        } catch (IOException | RuntimeException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Hash the lines of a node ignoring their indentation, so the results depending on the node are computed again
+     * when it changes.
+     *
+     * @param lines the lines of the script
+     * @param prefix a text hashed before the lines, like the method name which is hashed alone if the source is not
+     *               available
+     * @param node the method or the closure
+     * @return the hexadecimal hash
+     */
+    public static String sourceHash(List<String> lines, String prefix, ASTNode node) {
+        StringBuilder text = new StringBuilder(prefix);
+        int first = node.getLineNumber() - 1;
+        int last = Math.min(node.getLastLineNumber(), lines.size());
+        for (int i = Math.max(0, first); i < last; i++) {
+            text.append('\n').append(lines.get(i).trim());
+        }
+        return Sha256.hex(text.toString());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.profiler;
+
+import org.codehaus.groovy.ast.ClassCodeExpressionTransformer;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.ArrayExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.SpreadExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.EmptyStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.ast.stmt.TryCatchStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compilation customizer instrumenting a script for the {@link ScriptProfiler} :
+ * <ul>
+ *     <li>a call to {@link ScriptProfiler#line(int)} is added before each statement of a block,</li>
+ *     <li>the methods and the closures are surrounded by calls to {@link ScriptProfiler#enter(String)} and
+ *     {@link ScriptProfiler#exit()},</li>
+ *     <li>the calls of the usual {@link groovy.sql.Sql} and JDBC methods are done through
+ *     {@link ScriptProfiler#jdbc(Object, String, Object[])} so their time can be measured.</li>
+ * </ul>
+ * The instrumented code does nothing more than the original one when no profiler is started on the running thread.
+ */
+public class ProfilingCustomizer extends CompilationCustomizer {
+
+    /**
+     * Key of the customizer in the configuration key of the compiled scripts.
+     */
+    public static final String KEY = "profiler";
+
+    private static final ClassNode PROFILER = ClassHelper.make(ScriptProfiler.class);
+
+    private static final Set<String> JDBC_METHODS = new HashSet<>(Arrays.asList("execute", "executeQuery",
+            "executeUpdate", "executeInsert", "executeBatch", "eachRow", "rows", "firstRow", "withBatch",
+            "withTransaction", "call", "callWithRows", "callWithAllRows", "query", "prepareStatement",
+            "prepareCall", "next", "commit"));
+
+    private final boolean instrumentCalls;
+
+    /**
+     * Create a customizer instrumenting the statements, the methods and the JDBC calls.
+     */
+    public ProfilingCustomizer() {
+        this(true);
+    }
+
+    /**
+     * Create a customizer.
+     *
+     * @param instrumentCalls false to keep the JDBC calls as they are, for example for statically compiled code
+     *                        where the replacement would lose the call types
+     */
+    public ProfilingCustomizer(boolean instrumentCalls) {
+        super(CompilePhase.CANONICALIZATION);
+        this.instrumentCalls = instrumentCalls;
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        if (classNode.isInterface()) {
+            return;
+        }
+        Instrumenter instrumenter = new Instrumenter(source);
+        for (MethodNode method : classNode.getMethods()) {
+            if (method.isAbstract() || method.isSynthetic() || !(method.getCode() instanceof BlockStatement)) {
+                continue;
+            }
+            method.getCode().visit(instrumenter);
+            boolean scriptBody = classNode.isScript() && method.getName().equals("run") &&
+                    method.getParameters().length == 0;
+            if (!scriptBody) {
+                method.setCode(wrap((BlockStatement) method.getCode(),
+                        classNode.getNameWithoutPackage() + "." + method.getName()));
+            }
+        }
+    }
+
+    /**
+     * Surround a block with the calls to {@link ScriptProfiler#enter(String)} and {@link ScriptProfiler#exit()}.
+     */
+    private static BlockStatement wrap(BlockStatement block, String name) {
+        TryCatchStatement tryFinally = new TryCatchStatement(block, call("exit"));
+        BlockStatement wrapped = new BlockStatement(new ArrayList<>(), block.getVariableScope());
+        wrapped.addStatement(call("enter", new ConstantExpression(name)));
+        wrapped.addStatement(tryFinally);
+        wrapped.setSourcePosition(block);
+        return wrapped;
+    }
+
+    private static Statement call(String method, Expression... args) {
+        return new ExpressionStatement(new StaticMethodCallExpression(PROFILER, method,
+                new ArgumentListExpression(args)));
+    }
+
+    /**
+     * Visitor adding the profiler calls into the code of a method.
+     */
+    private class Instrumenter extends ClassCodeExpressionTransformer {
+
+        private final SourceUnit source;
+
+        private Instrumenter(SourceUnit source) {
+            this.source = source;
+        }
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            return source;
+        }
+
+        @Override
+        public void visitBlockStatement(BlockStatement block) {
+            super.visitBlockStatement(block);
+            List<Statement> statements = block.getStatements();
+            List<Statement> instrumented = new ArrayList<>(statements.size() * 2);
+            for (Statement statement : statements) {
+                if (statement.getLineNumber() > 0 && !(statement instanceof EmptyStatement)) {
+                    Statement line = call("line", new ConstantExpression(statement.getLineNumber(), true));
+                    line.setSourcePosition(statement);
+                    instrumented.add(line);
+                }
+                instrumented.add(statement);
+            }
+            statements.clear();
+            statements.addAll(instrumented);
+        }
+
+        @Override
+        public Expression transform(Expression expression) {
+            if (expression instanceof ClosureExpression) {
+                ClosureExpression closure = (ClosureExpression) expression;
+                if (closure.getCode() instanceof BlockStatement) {
+                    closure.getCode().visit(this);
+                    closure.setCode(wrap((BlockStatement) closure.getCode(), "closure line " + closure.getLineNumber()));
+                }
+                return closure;
+            }
+            if (instrumentCalls && expression instanceof MethodCallExpression && isJdbcCandidate((MethodCallExpression) expression)) {
+                MethodCallExpression call = (MethodCallExpression) expression;
+                List<Expression> args = new ArrayList<>();
+                for (Expression arg : ((ArgumentListExpression) call.getArguments()).getExpressions()) {
+                    args.add(transform(arg));
+                }
+                StaticMethodCallExpression replacement = new StaticMethodCallExpression(PROFILER, "jdbc",
+                        new ArgumentListExpression(transform(call.getObjectExpression()),
+                                new ConstantExpression(call.getMethodAsString()),
+                                new ArrayExpression(ClassHelper.OBJECT_TYPE, args)));
+                replacement.setSourcePosition(call);
+                return replacement;
+            }
+            return super.transform(expression);
+        }
+
+        /**
+         * Only the calls with an explicit receiver, a constant name and plain arguments are replaced, so the dynamic
+         * call done by the profiler behaves like the original one. The calls on {@code this} and {@code super} are kept,
+         * as a dynamic call on {@code super} would call the overriding method, and so are the calls on a literal.
+         */
+        private boolean isJdbcCandidate(MethodCallExpression call) {
+            Expression receiver = call.getObjectExpression();
+            if (receiver instanceof VariableExpression && (((VariableExpression) receiver).isThisExpression() ||
+                    ((VariableExpression) receiver).isSuperExpression())) {
+                return false;
+            }
+            if (receiver instanceof ConstantExpression || receiver instanceof ClosureExpression) {
+                return false;
+            }
+            if (call.isImplicitThis() || call.isSafe() || call.isSpreadSafe() || call.getMethodAsString() == null ||
+                    !JDBC_METHODS.contains(call.getMethodAsString()) ||
+                    !(call.getArguments() instanceof ArgumentListExpression)) {
+                return false;
+            }
+            for (Expression arg : ((ArgumentListExpression) call.getArguments()).getExpressions()) {
+                if (arg instanceof SpreadExpression || arg instanceof MapExpression) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.profiler;
+
+import groovy.sql.Sql;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.runtime.InvokerInvocationException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collector of the timings of a script instrumented by the {@link ProfilingCustomizer}.
+ *
+ * The instrumented code calls the static methods of this class, which record the timings into the profiler started on
+ * the current thread, if any. The time elapsed between two statements is given to the first one, so the time of a line
+ * is its self time : the time of the statements of the called methods and closures is given to their own lines.
+ */
+public class ScriptProfiler {
+
+    private static final ThreadLocal<ScriptProfiler> CURRENT = new ThreadLocal<>();
+
+    private long[] lineNanos = new long[256];
+    private long[] lineHits = new long[256];
+    private int currentLine = 0;
+    private long last;
+    private long start;
+    private long total = 0;
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private final Map<String, long[]> methods = new HashMap<>();
+    private long jdbcCalls = 0;
+    private long jdbcNanos = 0;
+    private long jdbcSelfNanos = 0;
+    private int jdbcDepth = 0;
+
+    /**
+     * Start recording the instrumented code executed by the current thread.
+     */
+    public void start() {
+        CURRENT.set(this);
+        start = System.nanoTime();
+        last = start;
+    }
+
+    /**
+     * Stop recording.
+     */
+    public void stop() {
+        long now = System.nanoTime();
+        attribute(now);
+        total += now - start;
+        CURRENT.remove();
+    }
+
+    /**
+     * Called before each instrumented statement.
+     *
+     * @param line the line of the statement
+     */
+    public static void line(int line) {
+        ScriptProfiler profiler = CURRENT.get();
+        if (profiler != null) {
+            profiler.attribute(System.nanoTime());
+            profiler.hit(line);
+        }
+    }
+
+    /**
+     * Called at the start of an instrumented method or closure.
+     *
+     * @param name the name of the method or closure
+     */
+    public static void enter(String name) {
+        ScriptProfiler profiler = CURRENT.get();
+        if (profiler != null) {
+            long now = System.nanoTime();
+            profiler.attribute(now);
+            profiler.frames.push(new Frame(name, profiler.currentLine, now, false));
+            profiler.methods.computeIfAbsent(name, key -> new long[2])[0]++;
+        }
+    }
+
+    /**
+     * Called at the end of an instrumented method or closure.
+     */
+    public static void exit() {
+        ScriptProfiler profiler = CURRENT.get();
+        if (profiler != null && !profiler.frames.isEmpty()) {
+            long now = System.nanoTime();
+            profiler.attribute(now);
+            Frame frame = profiler.frames.pop();
+            profiler.methods.get(frame.name)[1] += now - frame.start;
+            profiler.currentLine = frame.callerLine;
+        }
+    }
+
+    /**
+     * Replacement of a call which may be a JDBC call. The call is done dynamically like the original one and timed if
+     * the receiver is a JDBC or a {@link Sql} object.
+     *
+     * @param receiver the object receiving the call
+     * @param method the name of the called method
+     * @param args the arguments of the call
+     * @return the result of the call
+     * @throws Throwable the exception thrown by the called method
+     */
+    public static Object jdbc(Object receiver, String method, Object[] args) throws Throwable {
+        ScriptProfiler profiler = CURRENT.get();
+        if (profiler == null || !isJdbc(receiver)) {
+            return invoke(receiver, method, args);
+        }
+        long now = System.nanoTime();
+        profiler.attribute(now);
+        profiler.frames.push(new Frame(method, profiler.currentLine, now, true));
+        profiler.jdbcDepth++;
+        try {
+            return invoke(receiver, method, args);
+        } finally {
+            long end = System.nanoTime();
+            profiler.attribute(end);
+            profiler.jdbcDepth--;
+            Frame frame = profiler.frames.pop();
+            profiler.currentLine = frame.callerLine;
+            profiler.jdbcCalls++;
+            if (profiler.jdbcDepth == 0) {
+                profiler.jdbcNanos += end - frame.start;
+            }
+        }
+    }
+
+    private static Object invoke(Object receiver, String method, Object[] args) throws Throwable {
+        try {
+            return InvokerHelper.invokeMethod(receiver, method, args);
+        } catch (InvokerInvocationException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isJdbc(Object receiver) {
+        return receiver instanceof Sql || receiver instanceof Connection || receiver instanceof Statement ||
+                receiver instanceof ResultSet || receiver instanceof DataSource || receiver == Sql.class;
+    }
+
+    /**
+     * Give the time elapsed since the last event to the current line.
+     *
+     * @param now the current time
+     */
+    private void attribute(long now) {
+        long elapsed = now - last;
+        ensureCapacity(currentLine);
+        lineNanos[currentLine] += elapsed;
+        Frame frame = frames.peek();
+        if (frame != null && frame.jdbc) {
+            jdbcSelfNanos += elapsed;
+        }
+        last = now;
+    }
+
+    private void hit(int line) {
+        ensureCapacity(line);
+        lineHits[line]++;
+        currentLine = line;
+    }
+
+    private void ensureCapacity(int line) {
+        if (line >= lineNanos.length) {
+            int size = Math.max(line + 1, lineNanos.length * 2);
+            lineNanos = Arrays.copyOf(lineNanos, size);
+            lineHits = Arrays.copyOf(lineHits, size);
+        }
+    }
+
+    /**
+     * Build the hot spot report.
+     *
+     * @param script the source of the script, used to show the lines
+     * @param top number of lines and methods in the report
+     * @return the report
+     */
+    public String report(String script, int top) {
+        String[] sourceLines = script.split("\r?\n", -1);
+        StringBuilder sb = new StringBuilder();
+        sb.append("\nProfiling report : total ").append(ms(total)).append(" ms\n");
+
+        sb.append("\nTop lines by self time :\n");
+        List<Integer> lines = new ArrayList<>();
+        for (int i = 1; i < lineNanos.length; i++) {
+            if (lineHits[i] > 0) {
+                lines.add(i);
+            }
+        }
+        lines.sort((a, b) -> Long.compare(lineNanos[b], lineNanos[a]));
+        for (int line : lines.subList(0, Math.min(top, lines.size()))) {
+            String source = line <= sourceLines.length ? sourceLines[line - 1].trim() : "";
+            if (source.length() > 60) {
+                source = source.substring(0, 57) + "...";
+            }
+            sb.append(String.format("  line %5d : %10s ms %6.2f %% %10d hits   %s%n", line, ms(lineNanos[line]),
+                    total == 0 ? 0d : 100d * lineNanos[line] / total, lineHits[line], source));
+        }
+
+        if (!methods.isEmpty()) {
+            sb.append("\nMethods and closures by total time :\n");
+            List<Map.Entry<String, long[]>> entries = new ArrayList<>(methods.entrySet());
+            entries.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+            for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(top, entries.size()))) {
+                sb.append(String.format("  %-40s : %10s ms %10d calls%n", entry.getKey(), ms(entry.getValue()[1]),
+                        entry.getValue()[0]));
+            }
+        }
+
+        sb.append("\nJDBC : ").append(jdbcCalls).append(" calls, ").append(ms(jdbcNanos)).append(" ms (")
+                .append(ms(jdbcSelfNanos)).append(" ms outside of the script code)\n");
+        return sb.toString();
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    private static class Frame {
+        private final String name;
+        private final int callerLine;
+        private final long start;
+        private final boolean jdbc;
+
+        private Frame(String name, int callerLine, long start, boolean jdbc) {
+            this.name = name;
+            this.callerLine = callerLine;
+            this.start = start;
+            this.jdbc = jdbc;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.runset;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of the scripts of a run set. A script is ready once all its dependencies have succeeded.
+ */
+public class RunSetGraph {
+
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+    /**
+     * Add a script, or more dependencies to an already added script.
+     *
+     * @param script the script name
+     * @param scriptDependencies the names of the scripts which must succeed before the script is run
+     */
+    public void add(String script, Collection<String> scriptDependencies) {
+        dependencies.computeIfAbsent(script, key -> new LinkedHashSet<>()).addAll(scriptDependencies);
+    }
+
+    /**
+     * @return the scripts, in their adding order
+     */
+    public Set<String> getScripts() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    /**
+     * @param script the script name
+     * @return the direct dependencies of the script
+     */
+    public Set<String> getDependencies(String script) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(script, Collections.emptySet()));
+    }
+
+    /**
+     * Check that all the dependencies are scripts of the run set and that there is no cycle.
+     *
+     * @return the scripts sorted so that each script follows its dependencies
+     * @throws IllegalArgumentException if a dependency is unknown or if there is a cycle
+     */
+    public List<String> sort() {
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                if (!dependencies.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Unknown dependency '" + dependency + "' of '" +
+                            entry.getKey() + "'.");
+                }
+            }
+        }
+        List<String> sorted = new ArrayList<>();
+        Map<String, Integer> states = new HashMap<>();
+        for (String script : dependencies.keySet()) {
+            visit(script, states, new ArrayDeque<>(), sorted);
+        }
+        return sorted;
+    }
+
+    private void visit(String script, Map<String, Integer> states, Deque<String> path, List<String> sorted) {
+        Integer state = states.get(script);
+        if (state != null && state == 2) {
+            return;
+        }
+        path.addLast(script);
+        if (state != null) {
+            throw new IllegalArgumentException("Dependency cycle : " + String.join(" -> ", path) + ".");
+        }
+        states.put(script, 1);
+        for (String dependency : dependencies.get(script)) {
+            visit(dependency, states, path, sorted);
+        }
+        states.put(script, 2);
+        path.removeLast();
+        sorted.add(script);
+    }
+
+    /**
+     * @param succeeded the scripts which have succeeded
+     * @param started the scripts already started, finished or skipped
+     * @return the scripts not started yet whose dependencies have all succeeded
+     */
+    public List<String> ready(Set<String> succeeded, Set<String> started) {
+        List<String> ready = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            if (!started.contains(entry.getKey()) && succeeded.containsAll(entry.getValue())) {
+                ready.add(entry.getKey());
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * @param script the script name
+     * @return all the scripts depending directly or indirectly on the script
+     */
+    public Set<String> downstream(String script) {
+        Set<String> downstream = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(script);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+                if (entry.getValue().contains(current) && downstream.add(entry.getKey())) {
+                    queue.add(entry.getKey());
+                }
+            }
+        }
+        return downstream;
+    }
+
+    /**
+     * Compute the longest chain of dependent scripts, which is the shortest possible time of the whole run set.
+     *
+     * @param durations the duration of each script, the missing scripts counting for 0
+     * @return the duration of the critical path
+     */
+    public long criticalPath(Map<String, Long> durations) {
+        Map<String, Long> finish = new HashMap<>();
+        long critical = 0;
+        for (String script : sort()) {
+            long start = 0;
+            for (String dependency : dependencies.get(script)) {
+                start = Math.max(start, finish.get(dependency));
+            }
+            long end = start + durations.getOrDefault(script, 0L);
+            finish.put(script, end);
+            critical = Math.max(critical, end);
+        }
+        return critical;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.runset;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.ConsoleScriptOutput;
+import org.orbisgis.ui.editors.groovy.GroovyJob;
+import org.orbisgis.ui.editors.groovy.GroovySession;
+import org.orbisgis.ui.editors.groovy.GroovyUtils;
+import org.orbisgis.ui.editors.groovy.ScriptDirectives;
+import org.orbisgis.ui.editors.groovy.ScriptOutput;
+import org.orbisgis.ui.editors.groovy.batch.FileScriptOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Job executing the scripts of a folder as a run set : the scripts which do not depend on each other are run at the
+ * same time, each one in its own shell, and the scripts depending on a failed script are skipped.
+ *
+ * The dependencies are declared in the header of the scripts :
+ * <pre>
+ * // @depends load_data.groovy, clean_data
+ * </pre>
+ * or in a {@value #MANIFEST} file in the folder, which then lists the scripts of the run set, one per line :
+ * <pre>
+ * load_data.groovy
+ * clean_data.groovy : load_data.groovy
+ * report.groovy : clean_data.groovy, load_data.groovy
+ * </pre>
+ * The output of each script is written into the {@value #LOG_FOLDER} sub folder, and the console receives the progress
+ * of the run set followed by its timeline.
+ */
+public class RunSetJob extends Job {
+
+    private static final Logger LOGGER = new Logger(RunSetJob.class);
+
+    /**
+     * Name of the directive declaring the dependencies of a script.
+     */
+    public static final String DEPENDS_DIRECTIVE = "depends";
+
+    /**
+     * Name of the optional file listing the scripts of the run set and their dependencies.
+     */
+    public static final String MANIFEST = "runset.txt";
+
+    /**
+     * Name of the folder receiving the output of the scripts.
+     */
+    public static final String LOG_FOLDER = ".runs";
+
+    private static final int TIMELINE_WIDTH = 40;
+
+    private final IContainer folder;
+    private final Object lock = new Object();
+    private final ScriptOutput console = ConsoleScriptOutput.INSTANCE;
+    private Object owner = null;
+    private RunSetGraph graph;
+    private Map<String, ScriptRun> runs;
+    private final Set<String> started = new HashSet<>();
+    private final Set<String> succeeded = new HashSet<>();
+    private int running = 0;
+    private long origin;
+
+    /**
+     * Create the job executing the scripts of a folder.
+     *
+     * @param folder the folder of the scripts
+     */
+    public RunSetJob(IContainer folder) {
+        super("Run set " + folder.getName());
+        this.folder = folder;
+    }
+
+    /**
+     * Set the owner of the job, for example the editor, so the job is cancelled with the jobs of its owner.
+     *
+     * @param owner the owner of the job
+     */
+    public void setOwner(Object owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return owner != null && family == owner;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        console.begin("Run set " + folder.getFullPath());
+        Path logFolder;
+        try {
+            load();
+            graph.sort();
+            logFolder = folder.getLocation().toFile().toPath().resolve(LOG_FOLDER);
+            Files.createDirectories(logFolder);
+        } catch (IOException | CoreException | IllegalArgumentException e) {
+            LOGGER.error("Unable to load the run set of '" + folder.getName() + "'.", e);
+            console.end(false, e.getMessage());
+            console.flush();
+            return new Status(IStatus.OK, RunSetJob.class.getName(), "Unable to load the run set.");
+        }
+        console.write(runs.size() + " scripts, output in " + logFolder + "\n\n");
+        monitor.beginTask(getName(), runs.size());
+        origin = System.nanoTime();
+        boolean canceled = false;
+        int finished = 0;
+        synchronized (lock) {
+            while (true) {
+                if (monitor.isCanceled() && !canceled) {
+                    canceled = true;
+                    Job.getJobManager().cancel(this);
+                }
+                if (!canceled) {
+                    for (String name : graph.ready(succeeded, started)) {
+                        start(runs.get(name), logFolder);
+                    }
+                }
+                int done = (int) runs.values().stream().filter(run -> run.state.isFinal()).count();
+                monitor.worked(done - finished);
+                finished = done;
+                if (running == 0 && (canceled || graph.ready(succeeded, started).isEmpty())) {
+                    break;
+                }
+                try {
+                    lock.wait(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    canceled = true;
+                    Job.getJobManager().cancel(this);
+                }
+            }
+            for (ScriptRun run : runs.values()) {
+                if (!run.state.isFinal()) {
+                    run.state = State.CANCELED;
+                }
+            }
+        }
+        monitor.done();
+        long failures = runs.values().stream().filter(run -> run.state != State.SUCCEEDED).count();
+        console.write(timeline());
+        console.end(failures == 0, null);
+        console.flush();
+        return new Status(IStatus.OK, RunSetJob.class.getName(), String.format("Run set executed, %d of %d scripts " +
+                "succeeded in %.2f s.", runs.size() - failures, runs.size(), (System.nanoTime() - origin) / 1e9));
+    }
+
+    /**
+     * Read the scripts of the run set and their dependencies.
+     */
+    private void load() throws IOException, CoreException {
+        graph = new RunSetGraph();
+        runs = new LinkedHashMap<>();
+        Map<String, List<String>> declared = new LinkedHashMap<>();
+        IFile manifest = folder.getFile(new org.eclipse.core.runtime.Path(MANIFEST));
+        if (manifest.exists()) {
+            for (String line : read(manifest).split("\r?\n")) {
+                String entry = line.trim();
+                if (entry.isEmpty() || entry.startsWith("#")) {
+                    continue;
+                }
+                int colon = entry.indexOf(':');
+                String name = normalize(colon < 0 ? entry : entry.substring(0, colon));
+                declared.computeIfAbsent(name, key -> new ArrayList<>())
+                        .addAll(names(colon < 0 ? "" : entry.substring(colon + 1)));
+            }
+        } else {
+            for (IResource member : folder.members()) {
+                if (member.getType() == IResource.FILE &&
+                        GroovyUtils.SCRIPT_FILE_EXTENSION.equals(member.getFileExtension())) {
+                    declared.put(member.getName(), new ArrayList<>());
+                }
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : declared.entrySet()) {
+            IFile file = folder.getFile(new org.eclipse.core.runtime.Path(entry.getKey()));
+            if (!file.exists()) {
+                throw new IOException("The script '" + entry.getKey() + "' of the run set does not exist.");
+            }
+            String script = read(file);
+            List<String> dependencies = new ArrayList<>(entry.getValue());
+            for (String value : ScriptDirectives.parse(script).getAll(DEPENDS_DIRECTIVE)) {
+                dependencies.addAll(names(value));
+            }
+            graph.add(entry.getKey(), dependencies);
+            runs.put(entry.getKey(), new ScriptRun(entry.getKey(), file, script));
+        }
+    }
+
+    private static String read(IFile file) throws IOException, CoreException {
+        try (InputStream in = file.getContents(true)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            return bytes.toString(file.getCharset());
+        }
+    }
+
+    /**
+     * @param value script names separated by commas or spaces, with or without extension
+     * @return the script names with their extension
+     */
+    private static List<String> names(String value) {
+        return Arrays.stream(value.split("[,\\s]+"))
+                .filter(name -> !name.isEmpty())
+                .map(RunSetJob::normalize)
+                .collect(Collectors.toList());
+    }
+
+    private static String normalize(String name) {
+        String trimmed = name.trim();
+        return trimmed.endsWith("." + GroovyUtils.SCRIPT_FILE_EXTENSION) ? trimmed :
+                trimmed + "." + GroovyUtils.SCRIPT_FILE_EXTENSION;
+    }
+
+    /**
+     * Schedule the job of a script, in a new session so the scripts do not share their variables. Called with the
+     * lock held.
+     */
+    private void start(ScriptRun run, Path logFolder) {
+        started.add(run.name);
+        FileScriptOutput output;
+        try {
+            output = new FileScriptOutput(logFolder.resolve(run.name + ".log"));
+        } catch (IOException e) {
+            LOGGER.error("Unable to create the output file of '" + run.name + "'.", e);
+            finish(run, State.FAILED);
+            return;
+        }
+        GroovySession session = new GroovySession(false);
+        GroovyJob job = new GroovyJob(run.name, run.script, session);
+        job.setResource(run.file);
+        job.setOwner(this);
+        job.setScriptOutput(output);
+        job.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void running(IJobChangeEvent event) {
+                synchronized (lock) {
+                    run.start = System.nanoTime();
+                    run.state = State.RUNNING;
+                    log(run.name + " started");
+                }
+            }
+
+            @Override
+            public void done(IJobChangeEvent event) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Unable to close the output file of '" + run.name + "'.", e);
+                }
+                session.close();
+                synchronized (lock) {
+                    running--;
+                    finish(run, job.isSucceeded() ? State.SUCCEEDED :
+                            event.getResult().getSeverity() == IStatus.CANCEL ? State.CANCELED : State.FAILED);
+                    lock.notifyAll();
+                }
+            }
+        });
+        running++;
+        job.schedule();
+    }
+
+    /**
+     * Record the end of a script and skip the scripts depending on it if it did not succeed. Called with the lock
+     * held.
+     */
+    private void finish(ScriptRun run, State state) {
+        run.end = System.nanoTime();
+        if (run.start == 0) {
+            run.start = run.end;
+        }
+        run.state = state;
+        log(String.format("%s %s in %.2f s", run.name, state.label, (run.end - run.start) / 1e9));
+        if (state == State.SUCCEEDED) {
+            succeeded.add(run.name);
+            return;
+        }
+        for (String name : graph.downstream(run.name)) {
+            if (started.add(name)) {
+                ScriptRun skipped = runs.get(name);
+                skipped.state = State.SKIPPED;
+                skipped.reason = run.name + " " + state.label;
+                log(name + " skipped");
+            }
+        }
+    }
+
+    private void log(String message) {
+        console.write(String.format("[%8.2f s] %s%n", (System.nanoTime() - origin) / 1e9, message));
+    }
+
+    /**
+     * Build the timeline of the run set, comparing its wall time with the sum of the script times and with its
+     * critical path.
+     */
+    private String timeline() {
+        long wall = Math.max(1, System.nanoTime() - origin);
+        Map<String, Long> durations = new HashMap<>();
+        long sum = 0;
+        for (ScriptRun run : runs.values()) {
+            if (run.end != 0) {
+                durations.put(run.name, run.end - run.start);
+                sum += run.end - run.start;
+            }
+        }
+        int width = Math.max(6, runs.keySet().stream().mapToInt(String::length).max().orElse(0));
+        StringBuilder sb = new StringBuilder(String.format("%nTimeline : wall %.2f s, sum of the scripts %.2f s, " +
+                "critical path %.2f s%n", wall / 1e9, sum / 1e9, graph.criticalPath(durations) / 1e9));
+        sb.append(String.format("  %-" + width + "s %10s %10s  %-10s%n", "script", "start", "time", "state"));
+        for (ScriptRun run : runs.values()) {
+            if (run.end == 0) {
+                sb.append(String.format("  %-" + width + "s %10s %10s  %-10s %s%n", run.name, "-", "-",
+                        run.state.label, run.reason == null ? "" : "(" + run.reason + ")"));
+                continue;
+            }
+            int from = (int) ((run.start - origin) * TIMELINE_WIDTH / wall);
+            int to = Math.max(from + 1, (int) ((run.end - origin) * TIMELINE_WIDTH / wall));
+            char[] bar = new char[TIMELINE_WIDTH];
+            Arrays.fill(bar, ' ');
+            Arrays.fill(bar, Math.min(from, TIMELINE_WIDTH - 1), Math.min(to, TIMELINE_WIDTH), '#');
+            sb.append(String.format("  %-" + width + "s %8.2f s %8.2f s  %-10s |%s|%n", run.name,
+                    (run.start - origin) / 1e9, (run.end - run.start) / 1e9, run.state.label, new String(bar)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * State of a script of the run set.
+     */
+    private enum State {
+        WAITING("waiting"), RUNNING("running"), SUCCEEDED("succeeded"), FAILED("failed"), SKIPPED("skipped"),
+        CANCELED("canceled");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        private boolean isFinal() {
+            return this != WAITING && this != RUNNING;
+        }
+    }
+
+    /**
+     * Execution of a script of the run set.
+     */
+    private static class ScriptRun {
+        private final String name;
+        private final IFile file;
+        private final String script;
+        private State state = State.WAITING;
+        private String reason = null;
+        private long start = 0;
+        private long end = 0;
+
+        private ScriptRun(String name, IFile file, String script) {
+            this.name = name;
+            this.file = file;
+            this.script = script;
+        }
+    }
+}
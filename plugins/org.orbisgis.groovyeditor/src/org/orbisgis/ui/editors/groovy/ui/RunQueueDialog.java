@@ -0,0 +1,122 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.ui;
+
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.TitleAreaDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.orbisgis.ui.editors.groovy.GroovyRunScheduler;
+
+import java.util.List;
+
+/**
+ * Dialog showing the queued and running groovy scripts of all the editors, refreshed every second, from which they can
+ * be canceled.
+ */
+public class RunQueueDialog extends TitleAreaDialog {
+
+    private static final int REFRESH_DELAY = 1000;
+    private static final int CANCEL_SELECTION_ID = IDialogConstants.CLIENT_ID + 1;
+    private static final int CANCEL_ALL_ID = IDialogConstants.CLIENT_ID + 2;
+
+    private Table table;
+    private List<GroovyRunScheduler.Entry> entries;
+
+    /**
+     * Create the dialog.
+     *
+     * @param parentShell the parent shell
+     */
+    public RunQueueDialog(Shell parentShell) {
+        super(parentShell);
+    }
+
+    @Override
+    protected Control createDialogArea(Composite parent) {
+        Composite composite = (Composite) super.createDialogArea(parent);
+        table = new Table(composite, SWT.BORDER | SWT.MULTI | SWT.FULL_SELECTION);
+        table.setHeaderVisible(true);
+        table.setLinesVisible(true);
+        GridData gridData = new GridData(GridData.FILL_BOTH);
+        gridData.widthHint = 600;
+        gridData.heightHint = 300;
+        table.setLayoutData(gridData);
+        for (String title : new String[]{"Script", "Priority", "State", "Time (s)"}) {
+            TableColumn column = new TableColumn(table, SWT.NONE);
+            column.setText(title);
+            column.setWidth(title.equals("Script") ? 280 : 100);
+        }
+        refresh();
+        return composite;
+    }
+
+    @Override
+    public void create() {
+        super.create();
+        setTitle("Groovy run queue");
+        setMessage("At most " + GroovyRunScheduler.CONCURRENCY + " scripts run at the same time.");
+    }
+
+    @Override
+    protected void createButtonsForButtonBar(Composite parent) {
+        createButton(parent, CANCEL_SELECTION_ID, "Cancel selected", false);
+        createButton(parent, CANCEL_ALL_ID, "Cancel all", false);
+        createButton(parent, OK, "Close", true);
+    }
+
+    @Override
+    protected void buttonPressed(int buttonId) {
+        if (buttonId == CANCEL_SELECTION_ID) {
+            for (int index : table.getSelectionIndices()) {
+                entries.get(index).getJob().cancel();
+            }
+        } else if (buttonId == CANCEL_ALL_ID) {
+            GroovyRunScheduler.getInstance().cancelAll();
+        } else {
+            super.buttonPressed(buttonId);
+        }
+    }
+
+    @Override
+    protected boolean isResizable() {
+        return true;
+    }
+
+    private void refresh() {
+        if (table == null || table.isDisposed()) {
+            return;
+        }
+        entries = GroovyRunScheduler.getInstance().getEntries();
+        table.setItemCount(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            GroovyRunScheduler.Entry entry = entries.get(i);
+            TableItem item = table.getItem(i);
+            item.setText(new String[]{entry.getJob().getName(), entry.getPriority().toString(),
+                    entry.getState().toString(), String.valueOf(entry.getElapsedTime() / 1000)});
+        }
+        table.getDisplay().timerExec(REFRESH_DELAY, this::refresh);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.ui;
+
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.TitleAreaDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.console.ConsoleScrollback;
+
+import java.io.IOException;
+
+/**
+ * Dialog showing the whole output of the groovy output console page by page : the lines spilled to the scrollback file
+ * are read on demand, followed by the lines still displayed in the console.
+ */
+public class ScrollbackDialog extends TitleAreaDialog {
+
+    private static final Logger LOGGER = new Logger(ScrollbackDialog.class);
+
+    private static final int PAGE_SIZE = 256 * 1024;
+    private static final int PREVIOUS_ID = IDialogConstants.CLIENT_ID + 1;
+    private static final int NEXT_ID = IDialogConstants.CLIENT_ID + 2;
+
+    private final ConsoleScrollback scrollback;
+    private final String tail;
+    private StyledText pageText;
+    private Text findText;
+    private ConsoleScrollback.Page page = null;
+
+    /**
+     * Create the dialog.
+     *
+     * @param parentShell the parent shell
+     * @param scrollback the lines removed from the console
+     * @param tail the lines still displayed in the console
+     */
+    public ScrollbackDialog(Shell parentShell, ConsoleScrollback scrollback, String tail) {
+        super(parentShell);
+        this.scrollback = scrollback;
+        this.tail = tail;
+    }
+
+    @Override
+    protected Control createDialogArea(Composite parent) {
+        Composite composite = (Composite) super.createDialogArea(parent);
+
+        Composite findBar = new Composite(composite, SWT.NONE);
+        findBar.setLayout(new GridLayout(2, false));
+        findBar.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+        findText = new Text(findBar, SWT.BORDER | SWT.SEARCH);
+        findText.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+        findText.addListener(SWT.DefaultSelection, event -> findNext());
+        Button findButton = new Button(findBar, SWT.PUSH);
+        findButton.setText("Find next");
+        findButton.addListener(SWT.Selection, event -> findNext());
+
+        pageText = new StyledText(composite, SWT.BORDER | SWT.READ_ONLY | SWT.V_SCROLL | SWT.H_SCROLL);
+        GridData gridData = new GridData(GridData.FILL_BOTH);
+        gridData.widthHint = 800;
+        gridData.heightHint = 500;
+        pageText.setLayoutData(gridData);
+
+        showTail();
+        return composite;
+    }
+
+    @Override
+    public void create() {
+        super.create();
+        setTitle("Groovy output history");
+        updateMessage();
+    }
+
+    @Override
+    protected void createButtonsForButtonBar(Composite parent) {
+        createButton(parent, PREVIOUS_ID, "Previous page", false);
+        createButton(parent, NEXT_ID, "Next page", false);
+        createButton(parent, OK, "Close", true);
+    }
+
+    @Override
+    protected void buttonPressed(int buttonId) {
+        if (buttonId == PREVIOUS_ID) {
+            showPrevious();
+        } else if (buttonId == NEXT_ID) {
+            showNext();
+        } else {
+            super.buttonPressed(buttonId);
+        }
+    }
+
+    @Override
+    protected boolean isResizable() {
+        return true;
+    }
+
+    /**
+     * Show the lines still displayed in the console, which follow the spilled ones.
+     */
+    private void showTail() {
+        page = null;
+        pageText.setText(tail);
+        updateMessage();
+    }
+
+    private void showPage(ConsoleScrollback.Page newPage) {
+        page = newPage;
+        pageText.setText(page.getText());
+        updateMessage();
+    }
+
+    private void showPrevious() {
+        try {
+            long end = page == null ? scrollback.size() : page.getStart();
+            if (end > 0) {
+                showPage(scrollback.readPageBefore(end, PAGE_SIZE));
+            }
+        } catch (IOException e) {
+            LOGGER.error("Unable to read the Groovy output history.", e);
+        }
+    }
+
+    private void showNext() {
+        if (page == null) {
+            return;
+        }
+        try {
+            if (page.getEnd() >= scrollback.size()) {
+                showTail();
+            } else {
+                showPage(scrollback.readPage(page.getEnd(), PAGE_SIZE));
+            }
+        } catch (IOException e) {
+            LOGGER.error("Unable to read the Groovy output history.", e);
+        }
+    }
+
+    /**
+     * Select the next occurrence of the searched text, in the current page or in the following ones.
+     */
+    private void findNext() {
+        String needle = findText.getText();
+        if (needle.isEmpty()) {
+            return;
+        }
+        String current = pageText.getText();
+        int index = current.indexOf(needle, pageText.getSelection().y);
+        try {
+            if (index < 0) {
+                // Search in the following pages, the console content being the last one, then from the beginning
+                long offset = scrollback.find(needle, page == null ? 0 : page.getEnd(), PAGE_SIZE);
+                if (offset >= 0) {
+                    showPage(scrollback.readPage(offset, PAGE_SIZE));
+                } else if (page != null) {
+                    showTail();
+                }
+                index = pageText.getText().indexOf(needle);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Unable to search the Groovy output history.", e);
+        }
+        if (index >= 0) {
+            pageText.setSelection(index, index + needle.length());
+            pageText.showSelection();
+        } else {
+            setMessage("'" + needle + "' not found.");
+        }
+    }
+
+    private void updateMessage() {
+        if (getShell() == null) {
+            return;
+        }
+        try {
+            long size = scrollback.size();
+            if (page == null) {
+                setMessage(size == 0 ? "Console content." : "Console content, " + size / 1024 + " KB of earlier output.");
+            } else {
+                setMessage("Earlier output, bytes " + page.getStart() + " to " + page.getEnd() + " of " + size + ".");
+            }
+        } catch (IOException e) {
+            setMessage("Unable to read the Groovy output history.");
+        }
+    }
+}
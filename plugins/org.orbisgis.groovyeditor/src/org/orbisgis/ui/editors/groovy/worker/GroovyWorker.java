@@ -0,0 +1,209 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.worker;
+
+import groovy.lang.GroovyShell;
+import org.eclipse.core.runtime.FileLocator;
+import org.orbisgis.core.logger.Logger;
+import org.orbisgis.ui.editors.groovy.checkpoint.ScriptCheckpoints;
+import org.orbisgis.ui.editors.groovy.memo.DiskMemoCache;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Worker JVM executing groovy scripts out of the workbench process, so a script exhausting its memory or thrashing the
+ * garbage collector does not take the workbench down. The worker runs {@link GroovyWorkerMain} with its own maximum
+ * heap size, set with the system property {@link #XMX_PROPERTY}.
+ */
+public class GroovyWorker {
+
+    private static final Logger LOGGER = new Logger(GroovyWorker.class);
+
+    public static final String XMX_PROPERTY = "org.orbisgis.groovyeditor.worker.xmx";
+
+    private static final String XMX = System.getProperty(XMX_PROPERTY, "1g");
+
+    private static String classPath = null;
+
+    private final Process process;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private volatile boolean canceled = false;
+    private int runs = 0;
+
+    /**
+     * Start a worker JVM and wait until it is ready.
+     *
+     * @throws IOException if the worker cannot be started
+     */
+    public GroovyWorker() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-Xmx" + XMX,
+                "-D" + DiskMemoCache.DIRECTORY_PROPERTY + "=" + DiskMemoCache.getInstance().getDirectory(),
+                "-D" + ScriptCheckpoints.DIRECTORY_PROPERTY + "=" + ScriptCheckpoints.getDirectory(),
+                "-cp", getClassPath(), GroovyWorkerMain.class.getName());
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        process = builder.start();
+        out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        if (in.read() != WorkerProtocol.READY) {
+            process.destroyForcibly();
+            throw new IOException("The Groovy worker JVM did not start.");
+        }
+    }
+
+    /**
+     * Build the class path of the worker : the plugin classes and the libraries of the bundle providing groovy.
+     *
+     * @return the class path
+     * @throws IOException if the bundle files cannot be found
+     */
+    private static synchronized String getClassPath() throws IOException {
+        if (classPath == null) {
+            List<String> entries = new ArrayList<>();
+            File self = FileLocator.getBundleFile(FrameworkUtil.getBundle(GroovyWorker.class));
+            File bin = new File(self, "bin");
+            entries.add(self.isDirectory() && bin.isDirectory() ? bin.getAbsolutePath() : self.getAbsolutePath());
+            Bundle groovy = FrameworkUtil.getBundle(GroovyShell.class);
+            Enumeration<URL> jars = groovy.findEntries("libs", "*.jar", false);
+            while (jars != null && jars.hasMoreElements()) {
+                entries.add(new File(FileLocator.toFileURL(jars.nextElement()).getPath()).getAbsolutePath());
+            }
+            classPath = String.join(File.pathSeparator, entries);
+        }
+        return classPath;
+    }
+
+    /**
+     * Run a script in the worker and wait for its end.
+     *
+     * @param name the script name
+     * @param checkpoints the identifier of the checkpoints of the script, null to disable them
+     * @param script the script source
+     * @param classPaths the class paths of the script
+     * @param output the consumer of the script output
+     * @return the result of the script
+     */
+    public synchronized Result run(String name, String checkpoints, String script, URL[] classPaths,
+                                   Consumer<String> output) {
+        runs++;
+        try {
+            out.writeByte(WorkerProtocol.RUN);
+            WorkerProtocol.writeString(out, name);
+            WorkerProtocol.writeString(out, checkpoints == null ? "" : checkpoints);
+            WorkerProtocol.writeString(out, script);
+            out.writeInt(classPaths.length);
+            for (URL url : classPaths) {
+                WorkerProtocol.writeString(out, url.toString());
+            }
+            out.flush();
+            while (true) {
+                int type = in.read();
+                if (type == WorkerProtocol.OUT) {
+                    output.accept(WorkerProtocol.readString(in));
+                } else if (type == WorkerProtocol.END) {
+                    boolean success = in.readInt() == WorkerProtocol.SUCCESS;
+                    return new Result(success, WorkerProtocol.readString(in));
+                } else {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            if (!canceled) {
+                LOGGER.warn("Lost the connection with the Groovy worker JVM.", e);
+            }
+        }
+        process.destroyForcibly();
+        return new Result(false, canceled ? "The Groovy worker JVM has been stopped." :
+                "The Groovy worker JVM stopped, it may have run out of memory (-Xmx" + XMX + ").");
+    }
+
+    /**
+     * Stop the running script by killing the worker.
+     */
+    public void cancel() {
+        canceled = true;
+        process.destroyForcibly();
+    }
+
+    /**
+     * Stop the worker.
+     */
+    public void close() {
+        if (process.isAlive()) {
+            try {
+                out.writeByte(WorkerProtocol.EXIT);
+                out.flush();
+            } catch (IOException e) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * @return true if the worker can run scripts
+     */
+    public boolean isAlive() {
+        return process.isAlive() && !canceled;
+    }
+
+    /**
+     * @return the number of scripts run by the worker
+     */
+    public synchronized int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Result of a script executed by a worker.
+     */
+    public static class Result {
+        private final boolean success;
+        private final String message;
+
+        private Result(boolean success, String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * @return the result of the script, or its stack trace if it failed
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
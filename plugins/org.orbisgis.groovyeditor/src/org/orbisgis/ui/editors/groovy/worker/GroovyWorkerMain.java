@@ -0,0 +1,227 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.worker;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.orbisgis.ui.editors.groovy.ScriptProgress;
+import org.orbisgis.ui.editors.groovy.checkpoint.CheckpointCustomizer;
+import org.orbisgis.ui.editors.groovy.checkpoint.ScriptCheckpoints;
+import org.orbisgis.ui.editors.groovy.memo.MemoizeCustomizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entry point of a worker JVM executing groovy scripts for the editor. The requests are read from the standard input
+ * and the output of the scripts is sent back through the standard output, see {@link WorkerProtocol}.
+ *
+ * The worker keeps a shell per set of class paths and the classes of the last compiled scripts, so executing again a
+ * script in a warm worker costs neither the class loading nor the compilation.
+ *
+ * This class is started outside of the OSGi framework, so it only uses the JDK and groovy.
+ */
+public final class GroovyWorkerMain {
+
+    private static final int MAX_CACHED_SCRIPTS = 32;
+    private static final int OUTPUT_BUFFER = 8192;
+
+    private final DataOutputStream out;
+    private final Map<String, GroovyShell> shells = new HashMap<>();
+    private final Map<String, Class<?>> scripts = new LinkedHashMap<String, Class<?>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Class<?>> eldest) {
+            return size() > MAX_CACHED_SCRIPTS;
+        }
+    };
+
+    private GroovyWorkerMain(DataOutputStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        GroovyWorkerMain worker = new GroovyWorkerMain(out);
+        PrintStream scriptOut = new PrintStream(worker.new FrameOutputStream(), true, "UTF-8");
+        System.setOut(scriptOut);
+        System.setErr(scriptOut);
+
+        worker.shell(new String[0]).parse("def warmUp = [1, 2].collect { it * 2 }.sum()");
+        worker.send(WorkerProtocol.READY);
+        while (true) {
+            int type = in.read();
+            if (type < 0 || type == WorkerProtocol.EXIT) {
+                return;
+            }
+            if (type == WorkerProtocol.RUN) {
+                String name = WorkerProtocol.readString(in);
+                String checkpoints = WorkerProtocol.readString(in);
+                String script = WorkerProtocol.readString(in);
+                String[] classPaths = new String[in.readInt()];
+                for (int i = 0; i < classPaths.length; i++) {
+                    classPaths[i] = WorkerProtocol.readString(in);
+                }
+                worker.run(name, checkpoints, script, classPaths, scriptOut);
+            }
+        }
+    }
+
+    /**
+     * Run a script and send its end frame.
+     */
+    private void run(String name, String checkpoints, String script, String[] classPaths, PrintStream scriptOut)
+            throws IOException {
+        int status = WorkerProtocol.SUCCESS;
+        String message = "";
+        try {
+            String key = String.join("\n", classPaths) + "\n" + script;
+            Class<?> scriptClass = scripts.get(key);
+            if (scriptClass == null) {
+                scriptClass = shell(classPaths).getClassLoader().parseClass(
+                        new GroovyCodeSource(script, name, GroovyShell.DEFAULT_CODE_BASE), false);
+                scripts.put(key, scriptClass);
+            }
+            Binding binding = new Binding();
+            binding.setProperty("out", new PrintWriter(scriptOut, true));
+            binding.setVariable("args", new String[]{});
+            binding.setVariable("progress", new ScriptProgress());
+            binding.setVariable("checkpoint", checkpoints.isEmpty() ? ScriptCheckpoints.disabled() :
+                    new ScriptCheckpoints(checkpoints));
+            Script compiledScript = InvokerHelper.createScript(scriptClass, binding);
+            Object result = compiledScript.run();
+            if (result != null) {
+                message = result.toString();
+            }
+        } catch (Throwable e) {
+            StringWriter sw = new StringWriter();
+            e.printStackTrace(new PrintWriter(sw));
+            message = sw.toString();
+            status = WorkerProtocol.FAILURE;
+        }
+        scriptOut.flush();
+        synchronized (out) {
+            out.writeByte(WorkerProtocol.END);
+            out.writeInt(status);
+            WorkerProtocol.writeString(out, message);
+            out.flush();
+        }
+    }
+
+    private GroovyShell shell(String[] classPaths) throws IOException {
+        String key = String.join("\n", classPaths);
+        GroovyShell shell = shells.get(key);
+        if (shell == null) {
+            URL[] urls = new URL[classPaths.length];
+            for (int i = 0; i < classPaths.length; i++) {
+                urls[i] = new URL(classPaths[i]);
+            }
+            shell = new GroovyShell(new URLClassLoader(urls, GroovyWorkerMain.class.getClassLoader()),
+                    MemoizeCustomizer.configure(new CompilerConfiguration())
+                            .addCompilationCustomizers(new CheckpointCustomizer()));
+            shells.put(key, shell);
+        }
+        return shell;
+    }
+
+    private void send(byte type) throws IOException {
+        synchronized (out) {
+            out.writeByte(type);
+            out.flush();
+        }
+    }
+
+    /**
+     * Stream sending the bytes written by the scripts as output frames. Only complete UTF-8 sequences are sent, the
+     * end of an incomplete one is waited for.
+     */
+    private class FrameOutputStream extends OutputStream {
+
+        private byte[] buffer = new byte[OUTPUT_BUFFER];
+        private int count = 0;
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            if (count + length > buffer.length) {
+                flush();
+                if (count + length > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+                }
+            }
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            int end = completeLength();
+            if (end == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(WorkerProtocol.OUT);
+                WorkerProtocol.writeString(out, new String(buffer, 0, end, StandardCharsets.UTF_8));
+                out.flush();
+            }
+            System.arraycopy(buffer, end, buffer, 0, count - end);
+            count -= end;
+        }
+
+        /**
+         * @return the length of the buffer without the last UTF-8 sequence if it is incomplete
+         */
+        private int completeLength() {
+            int start = count - 1;
+            while (start >= 0 && count - start < 4 && (buffer[start] & 0xC0) == 0x80) {
+                start--;
+            }
+            if (start < 0) {
+                return count;
+            }
+            int lead = buffer[start] & 0xFF;
+            int length = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+            return count - start < length ? start : count;
+        }
+    }
+}
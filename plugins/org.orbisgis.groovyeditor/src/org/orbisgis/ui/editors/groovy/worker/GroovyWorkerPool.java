@@ -0,0 +1,125 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.worker;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.orbisgis.core.logger.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of worker JVMs started in background, so a script executed out of process does not wait for the start of a JVM
+ * and for the loading of the groovy compiler. A worker is stopped after {@link #MAX_RUNS} scripts, which frees the
+ * memory leaked by the scripts.
+ *
+ * The pool is configured with the system properties {@link #SIZE_PROPERTY} and {@link #RUNS_PROPERTY}.
+ */
+public class GroovyWorkerPool {
+
+    private static final Logger LOGGER = new Logger(GroovyWorkerPool.class);
+
+    public static final String SIZE_PROPERTY = "org.orbisgis.groovyeditor.worker.pool";
+    public static final String RUNS_PROPERTY = "org.orbisgis.groovyeditor.worker.runs";
+
+    private static final int SIZE = Integer.getInteger(SIZE_PROPERTY, 1);
+    private static final int MAX_RUNS = Math.max(1, Integer.getInteger(RUNS_PROPERTY, 20));
+
+    private static final ConcurrentLinkedQueue<GroovyWorker> WORKERS = new ConcurrentLinkedQueue<>();
+    private static final WarmUpJob WARM_UP_JOB = new WarmUpJob();
+
+    /**
+     * Take a warm worker, or start one if none is available, then start refilling the pool in background.
+     *
+     * @return a worker
+     * @throws IOException if no worker can be started
+     */
+    public static GroovyWorker take() throws IOException {
+        GroovyWorker worker;
+        while ((worker = WORKERS.poll()) != null) {
+            if (worker.isAlive()) {
+                break;
+            }
+        }
+        warmUp();
+        return worker != null ? worker : new GroovyWorker();
+    }
+
+    /**
+     * Give back a worker after a script, which stops it if it has run too many scripts.
+     *
+     * @param worker the worker
+     */
+    public static void release(GroovyWorker worker) {
+        if (worker.isAlive() && worker.getRuns() < MAX_RUNS) {
+            WORKERS.add(worker);
+        } else {
+            worker.close();
+            warmUp();
+        }
+    }
+
+    /**
+     * Start filling the pool in background if it is not full.
+     */
+    public static void warmUp() {
+        if (WORKERS.size() < SIZE) {
+            WARM_UP_JOB.schedule();
+        }
+    }
+
+    /**
+     * Stop all the warm workers.
+     */
+    public static void clear() {
+        WARM_UP_JOB.cancel();
+        GroovyWorker worker;
+        while ((worker = WORKERS.poll()) != null) {
+            worker.close();
+        }
+    }
+
+    /**
+     * System job filling the pool.
+     */
+    private static class WarmUpJob extends Job {
+
+        private WarmUpJob() {
+            super("Start the Groovy worker JVMs");
+            setSystem(true);
+            setPriority(Job.DECORATE);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            while (WORKERS.size() < SIZE && !monitor.isCanceled()) {
+                try {
+                    WORKERS.add(new GroovyWorker());
+                } catch (IOException e) {
+                    LOGGER.warn("Unable to start a Groovy worker JVM.", e);
+                    return Status.OK_STATUS;
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
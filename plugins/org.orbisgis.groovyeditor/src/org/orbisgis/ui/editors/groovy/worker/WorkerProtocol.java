@@ -0,0 +1,73 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.worker;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frames exchanged between the editor and a worker JVM through the standard input and output of the worker. A frame
+ * is a type byte followed by its fields. The strings are written as their UTF-8 length followed by their bytes.
+ *
+ * This class is loaded by the worker JVM, so it only uses the JDK.
+ */
+final class WorkerProtocol {
+
+    /**
+     * Worker to editor : the worker is ready to run scripts.
+     */
+    static final byte READY = 1;
+    /**
+     * Editor to worker : run a script. Fields : name, checkpoints identifier (empty if the checkpoints
+     * are disabled), script, number of class paths, class paths.
+     */
+    static final byte RUN = 2;
+    /**
+     * Worker to editor : output of the script. Field : text.
+     */
+    static final byte OUT = 3;
+    /**
+     * Worker to editor : end of the script. Fields : status ({@link #SUCCESS} or {@link #FAILURE}), message.
+     */
+    static final byte END = 4;
+    /**
+     * Editor to worker : stop the worker.
+     */
+    static final byte EXIT = 5;
+
+    static final int SUCCESS = 0;
+    static final int FAILURE = 1;
+
+    private WorkerProtocol() {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ *
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroovyScriptCacheTest {
+
+    @Test
+    void keyTest() throws MalformedURLException {
+        URL[] noUrl = new URL[0];
+        URL[] oneUrl = new URL[]{new File("/aJar!/").toURI().toURL()};
+
+        assertEquals(GroovyScriptCache.key("println 1", noUrl, "conf"), GroovyScriptCache.key("println 1", noUrl, "conf"));
+        assertNotEquals(GroovyScriptCache.key("println 1", noUrl, "conf"), GroovyScriptCache.key("println 2", noUrl, "conf"));
+        assertNotEquals(GroovyScriptCache.key("println 1", noUrl, "conf"), GroovyScriptCache.key("println 1", oneUrl, "conf"));
+        assertNotEquals(GroovyScriptCache.key("println 1", noUrl, "conf"), GroovyScriptCache.key("println 1", noUrl, "other"));
+        assertEquals(GroovyScriptCache.key("println 1", noUrl, "conf"), GroovyScriptCache.key("println 1", null, "conf"));
+    }
+
+    @Test
+    void hitAndMissTest() {
+        GroovyScriptCache cache = new GroovyScriptCache(10, 100);
+
+        assertNull(cache.get("a"));
+        cache.put("a", String.class, 10);
+        assertEquals(String.class, cache.get("a"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void evictLeastRecentlyUsedTest() {
+        GroovyScriptCache cache = new GroovyScriptCache(2, 100);
+        cache.put("a", String.class, 10);
+        cache.put("b", Integer.class, 10);
+        cache.get("a");
+        cache.put("c", Long.class, 10);
+
+        assertEquals(2, cache.size());
+        assertEquals(String.class, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(Long.class, cache.get("c"));
+    }
+
+    @Test
+    void evictOnWeightTest() {
+        GroovyScriptCache cache = new GroovyScriptCache(10, 25);
+        cache.put("a", String.class, 10);
+        cache.put("b", Integer.class, 10);
+        cache.put("c", Long.class, 10);
+        cache.put("d", Double.class, 30);
+
+        assertEquals(2, cache.size());
+        assertEquals(20, cache.getWeight());
+        assertNull(cache.get("a"));
+        assertNull(cache.get("d"));
+    }
+}
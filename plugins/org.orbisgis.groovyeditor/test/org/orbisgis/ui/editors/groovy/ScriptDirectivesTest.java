@@ -0,0 +1,56 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ *
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptDirectivesTest {
+
+    @Test
+    void parseTest() {
+        ScriptDirectives directives = ScriptDirectives.parse("#!/usr/bin/env groovy\n\n// A comment\n" +
+                "// @compile static\n//@depends a.groovy\n// @depends b.groovy\n// @flag\nprintln 1\n// @late value");
+
+        assertTrue(directives.has("compile"));
+        assertEquals("static", directives.get("compile"));
+        assertEquals(Arrays.asList("a.groovy", "b.groovy"), directives.getAll("depends"));
+        assertTrue(directives.has("flag"));
+        assertEquals("", directives.get("flag"));
+        assertFalse(directives.has("late"));
+        assertNull(directives.get("late"));
+        assertTrue(directives.getAll("late").isEmpty());
+    }
+
+    @Test
+    void compilationModeTest() {
+        assertEquals(CompilationMode.STATIC, CompilationMode.of(ScriptDirectives.parse("// @compile static\n"),
+                CompilationMode.DYNAMIC));
+        assertEquals(CompilationMode.TYPE_CHECKED, CompilationMode.of(ScriptDirectives.parse("// @compile typed\n"),
+                CompilationMode.DYNAMIC));
+        assertEquals(CompilationMode.DYNAMIC, CompilationMode.of(ScriptDirectives.parse("// @compile dynamic\n"),
+                CompilationMode.STATIC));
+        assertEquals(CompilationMode.STATIC, CompilationMode.of(ScriptDirectives.parse("println 1"),
+                CompilationMode.STATIC));
+    }
+}
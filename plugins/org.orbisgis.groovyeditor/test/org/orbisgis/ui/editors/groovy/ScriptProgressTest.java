@@ -0,0 +1,76 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptProgressTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void sampleTest() {
+        ScriptProgress progress = new ScriptProgress();
+        assertNull(progress.sample(0));
+        assertEquals(0, progress.advance());
+
+        progress.begin("Load", 1000);
+        progress.worked(100);
+        assertEquals("Load : 100 / 1,000 rows (10.0%)", progress.sample(0));
+        assertEquals(100, progress.advance());
+        progress.worked(100);
+        progress.subtask("roads");
+        assertEquals("Load : roads, 200 / 1,000 rows (20.0%), 100 rows/s, ETA 0:00:08", progress.sample(SECOND));
+        assertEquals(100, progress.advance());
+
+        // A few ticks are seen by the job
+        for (int i = 0; i < 3; i++) {
+            progress.tick();
+        }
+        assertEquals(203, progress.getDone());
+        assertTrue(progress.sample(2 * SECOND).startsWith("Load : roads, 203 / 1,000 rows"));
+
+        // No progress
+        progress.sample(2 * SECOND);
+        assertTrue(progress.sample(2 * SECOND + ScriptProgress.STALL_DELAY).endsWith("no progress for 30 s"));
+    }
+
+    @Test
+    void phaseTest() {
+        ScriptProgress progress = new ScriptProgress();
+        progress.begin("First", 10);
+        progress.worked(5);
+        progress.sample(0);
+        assertEquals(ScriptProgress.SCALE / 2, progress.advance());
+
+        // The second task fills the remaining half of the progress bar
+        progress.begin("Second", 100);
+        progress.worked(50);
+        progress.setUnit("features");
+        assertEquals("Second : 50 / 100 features (50.0%)", progress.sample(SECOND));
+        assertEquals(ScriptProgress.SCALE / 4, progress.advance());
+
+        progress.begin(0);
+        progress.worked(7);
+        assertEquals("7 features", progress.sample(2 * SECOND));
+        assertEquals(0, progress.advance());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.cells;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptCellsTest {
+
+    private static final String SCRIPT = "def a = 1\n//%% Second\ndef b = a + 1\n\n//%%\n//%% Fourth\nprintln b\n";
+
+    @Test
+    void splitTest() {
+        assertTrue(ScriptCells.hasCells(SCRIPT));
+        assertFalse(ScriptCells.hasCells("println 1\n// %% not a delimiter"));
+
+        List<ScriptCells.Cell> cells = ScriptCells.split(SCRIPT, "");
+        assertEquals(3, cells.size());
+        assertEquals("cell 1", cells.get(0).getLabel());
+        assertEquals(0, cells.get(0).getStartLine());
+        assertEquals("def a = 1\n", cells.get(0).getText());
+        assertEquals("Second", cells.get(1).getLabel());
+        assertEquals(2, cells.get(1).getStartLine());
+        assertEquals("\n\ndef b = a + 1\n\n", cells.get(1).getScriptText());
+        assertEquals("Fourth", cells.get(2).getLabel());
+        assertEquals(6, cells.get(2).getStartLine());
+    }
+
+    @Test
+    void keyTest() {
+        List<ScriptCells.Cell> cells = ScriptCells.split(SCRIPT, "");
+        List<ScriptCells.Cell> same = ScriptCells.split(SCRIPT, "");
+        List<ScriptCells.Cell> lastChanged = ScriptCells.split(SCRIPT.replace("println b", "println b * 2"), "");
+        List<ScriptCells.Cell> firstChanged = ScriptCells.split(SCRIPT.replace("a = 1", "a = 2"), "");
+        List<ScriptCells.Cell> otherSeed = ScriptCells.split(SCRIPT, "STATIC");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(cells.get(i).getKey(), same.get(i).getKey());
+            assertNotEquals(cells.get(i).getKey(), firstChanged.get(i).getKey());
+            assertNotEquals(cells.get(i).getKey(), otherSeed.get(i).getKey());
+        }
+        assertEquals(cells.get(0).getKey(), lastChanged.get(0).getKey());
+        assertEquals(cells.get(1).getKey(), lastChanged.get(1).getKey());
+        assertNotEquals(cells.get(2).getKey(), lastChanged.get(2).getKey());
+    }
+
+    @Test
+    void cellResultTest() {
+        Object kept = new Object();
+        Map<String, Object> before = new HashMap<>();
+        before.put("kept", kept);
+        before.put("replaced", 1);
+        before.put("removed", 2);
+        before.put("out", "before");
+        Map<String, Object> after = new HashMap<>();
+        after.put("kept", kept);
+        after.put("replaced", 3);
+        after.put("added", 4);
+        after.put("out", "after");
+        CellCache.CellResult result = new CellCache.CellResult(before, after, Collections.singleton("out"), "", 0);
+        assertEquals(2, result.getAssigned().size());
+        assertEquals(3, result.getAssigned().get("replaced"));
+        assertEquals(4, result.getAssigned().get("added"));
+        assertEquals(Collections.singleton("removed"), result.getRemoved());
+
+        result.apply(before);
+        after.remove("out");
+        before.remove("out");
+        assertEquals(after, before);
+    }
+}
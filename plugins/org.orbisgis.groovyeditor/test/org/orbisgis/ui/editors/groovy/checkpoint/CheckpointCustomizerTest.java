@@ -0,0 +1,58 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.checkpoint;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointCustomizerTest {
+
+    @TempDir
+    Path folder;
+
+    private static String script(int value) {
+        return "checkpoint.stage('grid') {\n" +
+                "    calls++\n" +
+                "    " + value + "\n" +
+                "}\n";
+    }
+
+    @Test
+    void editedStageTest() {
+        Binding binding = new Binding();
+        binding.setVariable("calls", 0);
+        binding.setVariable("checkpoint", new ScriptCheckpoints(folder));
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.addCompilationCustomizers(new CheckpointCustomizer());
+        GroovyShell shell = new GroovyShell(binding, configuration);
+        assertEquals(1, shell.evaluate(script(1)));
+        assertEquals(1, shell.evaluate(script(1)));
+        assertEquals(1, binding.getVariable("calls"));
+        // The checkpoint of the stage before its edition is not used
+        assertEquals(2, shell.evaluate(script(2)));
+        assertEquals(2, binding.getVariable("calls"));
+    }
+}
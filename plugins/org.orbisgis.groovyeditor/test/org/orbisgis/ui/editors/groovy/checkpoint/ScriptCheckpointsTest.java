@@ -0,0 +1,143 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.checkpoint;
+
+import groovy.lang.Closure;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptCheckpointsTest {
+
+    @TempDir
+    Path folder;
+
+    /**
+     * Stage body counting its executions.
+     */
+    private static class Stage extends Closure<Object> {
+        private final Object value;
+        private int calls = 0;
+
+        private Stage(Object value) {
+            super(null);
+            this.value = value;
+        }
+
+        @Override
+        public Object call() {
+            calls++;
+            return value;
+        }
+    }
+
+    @Test
+    void stageTest() throws Exception {
+        ScriptCheckpoints checkpoints = new ScriptCheckpoints(folder.resolve("script"));
+        Stage grid = new Stage(new ArrayList<>(Arrays.asList(1, 2, 3)));
+        assertFalse(checkpoints.has("grid"));
+        assertEquals(Arrays.asList(1, 2, 3), checkpoints.stage("grid", grid));
+        assertTrue(checkpoints.has("grid"));
+
+        // Execution resumed after a failure
+        ScriptCheckpoints resumed = new ScriptCheckpoints(folder.resolve("script"));
+        assertEquals(Arrays.asList(1, 2, 3), resumed.stage("grid", grid));
+        assertEquals(1, grid.calls);
+        assertEquals(Arrays.asList("grid.ser"), resumed.list());
+
+        resumed.remove("grid");
+        assertEquals(Arrays.asList(1, 2, 3), resumed.stage("grid", grid));
+        assertEquals(2, grid.calls);
+
+        // Names which are not valid file names
+        Stage other = new Stage("value");
+        assertEquals("value", resumed.stage("roads / buildings", other));
+        assertTrue(resumed.has("roads / buildings"));
+        assertEquals(2, resumed.list().size());
+
+        resumed.clear();
+        assertTrue(resumed.list().isEmpty());
+        assertFalse(Files.exists(folder.resolve("script")));
+    }
+
+    @Test
+    void editedStageTest() throws Exception {
+        ScriptCheckpoints checkpoints = new ScriptCheckpoints(folder);
+        Stage grid = new Stage("grid");
+        assertEquals("grid", checkpoints.stage("grid", "v1", grid));
+        assertEquals("grid", checkpoints.stage("grid", "v1", grid));
+        assertEquals(1, grid.calls);
+        assertEquals("grid", checkpoints.stage("grid", "v2", grid));
+        assertEquals(2, grid.calls);
+        assertEquals(Arrays.asList("grid.ser"), checkpoints.list());
+    }
+
+    @Test
+    void disabledTest() throws Exception {
+        ScriptCheckpoints checkpoints = ScriptCheckpoints.disabled();
+        Stage grid = new Stage("grid");
+        assertEquals("grid", checkpoints.stage("grid", grid));
+        assertEquals("grid", checkpoints.stage("grid", grid));
+        assertEquals(2, grid.calls);
+        assertFalse(checkpoints.has("grid"));
+        assertTrue(checkpoints.list().isEmpty());
+        checkpoints.clear();
+    }
+
+    @Test
+    void corruptedStageTest() throws Exception {
+        ScriptCheckpoints checkpoints = new ScriptCheckpoints(folder);
+        Files.write(folder.resolve("grid.ser"), new byte[]{1, 2, 3});
+        Stage grid = new Stage("grid");
+        assertEquals("grid", checkpoints.stage("grid", grid));
+        assertEquals(1, grid.calls);
+        assertEquals("grid", checkpoints.stage("grid", grid));
+        assertEquals(1, grid.calls);
+    }
+
+    @Test
+    void purgeTest() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Path file = folder.resolve("script" + i).resolve("stage.ser");
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[1000]);
+            file.toFile().setLastModified(System.currentTimeMillis() - (4 - i) * 60_000L);
+            files.add(file);
+        }
+        // The oldest checkpoints are removed first
+        ScriptCheckpoints.purge(folder, 3_600_000L, 2500);
+        assertFalse(Files.exists(files.get(0)));
+        assertFalse(Files.exists(files.get(1)));
+        assertTrue(Files.exists(files.get(2)));
+        assertTrue(Files.exists(files.get(3)));
+
+        // Expired checkpoints
+        ScriptCheckpoints.purge(folder, 90_000L, Long.MAX_VALUE);
+        assertFalse(Files.exists(files.get(2)));
+        assertTrue(Files.exists(files.get(3)));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ *
+ */
+package org.orbisgis.ui.editors.groovy.console;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsoleScrollbackTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void readPageTest() throws IOException {
+        try (ConsoleScrollback scrollback = new ConsoleScrollback(folder.resolve("output.log"))) {
+            scrollback.spill("line 1\nline 2\n");
+            scrollback.spill("line 3\n");
+
+            ConsoleScrollback.Page page = scrollback.readPage(0, 10);
+            assertEquals("line 1\n", page.getText());
+            assertEquals(7, page.getEnd());
+
+            page = scrollback.readPage(page.getEnd(), 100);
+            assertEquals("line 2\nline 3\n", page.getText());
+            assertEquals(scrollback.size(), page.getEnd());
+
+            page = scrollback.readPageBefore(scrollback.size(), 10);
+            assertEquals("line 3\n", page.getText());
+            assertEquals(14, page.getStart());
+        }
+    }
+
+    @Test
+    void findTest() throws IOException {
+        try (ConsoleScrollback scrollback = new ConsoleScrollback(folder.resolve("output.log"))) {
+            scrollback.spill("first\nsecond é\nthird\n");
+
+            assertEquals(6, scrollback.find("cond", 0, 8));
+            assertEquals(16, scrollback.find("third", 0, 8));
+            assertEquals(-1, scrollback.find("first", 6, 8));
+        }
+    }
+
+    @Test
+    void exportAndClearTest() throws IOException {
+        Path exported = folder.resolve("exported.log");
+        try (ConsoleScrollback scrollback = new ConsoleScrollback(folder.resolve("output.log"))) {
+            scrollback.spill("spilled\n");
+            scrollback.export(exported, "displayed\n");
+            assertEquals("spilled\ndisplayed\n", new String(Files.readAllBytes(exported), StandardCharsets.UTF_8));
+
+            scrollback.clear();
+            assertEquals(0, scrollback.size());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorRowTest {
+
+    /**
+     * Result set of 3 rows with the columns ID and NAME, recording the read columns.
+     */
+    private static ResultSet resultSet(List<String> reads) {
+        return TestResultSets.create(new String[]{"ID", "NAME"}, new JDBCType[]{JDBCType.INTEGER, JDBCType.VARCHAR}, 3,
+                (row, column) -> column == 1 ? (Object) (row + 1) : "name" + (row + 1), reads);
+    }
+
+    @Test
+    void lazyRowTest() throws Exception {
+        List<String> reads = new ArrayList<>();
+        CursorRow row = new CursorRow(resultSet(reads));
+        assertEquals(2, row.getColumns().size());
+        assertTrue(row.next());
+        assertEquals(1, row.getProperty("id"));
+        assertEquals(1, row.getAt("ID"));
+        assertEquals(1, row.getAt(0));
+        assertTrue(row.next());
+        assertEquals("name2", row.getProperty("NAME"));
+        assertEquals(2, row.toMap().get("ID"));
+        assertTrue(row.next());
+        assertFalse(row.next());
+        // Each column is read once by row, and only if it is used
+        assertEquals("[1:1, 2:2, 2:1]", reads.toString());
+        assertEquals(3, row.getRowNumber());
+    }
+}
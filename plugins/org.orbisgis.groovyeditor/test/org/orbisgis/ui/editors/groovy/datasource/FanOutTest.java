@@ -0,0 +1,110 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static FanOut.Producer range(String prefix, int count) {
+        return emit -> {
+            for (int i = 0; i < count; i++) {
+                emit.accept(prefix + i);
+            }
+        };
+    }
+
+    @Test
+    void mergeTest() {
+        Map<String, FanOut.Producer> producers = new LinkedHashMap<>();
+        producers.put("a", range("a", 500));
+        producers.put("b", range("b", 300));
+        producers.put("c", range("c", 0));
+        List<Object> values = new ArrayList<>();
+        FanOut fanOut = new FanOut(executor, 16, producers);
+        fanOut.forEachRemaining(values::add);
+        assertEquals(800, values.size());
+        // The values of a source keep their order
+        int last = -1;
+        for (Object value : values) {
+            if (value.toString().startsWith("a")) {
+                int index = Integer.parseInt(value.toString().substring(1));
+                assertEquals(last + 1, index);
+                last = index;
+            }
+        }
+        assertFalse(fanOut.hasNext());
+    }
+
+    @Test
+    void failureTest() {
+        Map<String, FanOut.Producer> producers = new LinkedHashMap<>();
+        producers.put("a", range("a", 10));
+        producers.put("broken", emit -> {
+            throw new IllegalArgumentException("broken query");
+        });
+        FanOut fanOut = new FanOut(executor, 16, producers);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> fanOut.forEachRemaining(v -> { }));
+        assertEquals("broken query", e.getCause().getMessage());
+        assertFalse(fanOut.hasNext());
+    }
+
+    @Test
+    void closeTest() {
+        AtomicInteger produced = new AtomicInteger();
+        Map<String, FanOut.Producer> producers = new LinkedHashMap<>();
+        producers.put("endless", emit -> {
+            while (true) {
+                emit.accept(produced.incrementAndGet());
+            }
+        });
+        FanOut fanOut = new FanOut(executor, 4, producers);
+        assertEquals(1, fanOut.next());
+        assertEquals(2, fanOut.next());
+        fanOut.close();
+        int count = produced.get();
+        assertTrue(count <= 8);
+        assertFalse(fanOut.hasNext());
+        assertEquals(count, produced.get());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.datasource;
+
+import java.lang.reflect.Proxy;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+
+/**
+ * In memory result sets for the tests of the script helpers reading query results.
+ */
+public final class TestResultSets {
+
+    /**
+     * Values of a result set.
+     */
+    public interface Values {
+        /**
+         * @param row the row index, from 0
+         * @param column the column index, from 1
+         * @return the value, or null
+         */
+        Object get(int row, int column);
+    }
+
+    private TestResultSets() {
+    }
+
+    /**
+     * Create a result set. The values are returned by {@code getObject}, {@code getLong}, {@code getDouble} and
+     * {@code getString}, and {@code wasNull} tells if the last value read was null.
+     *
+     * @param labels the column labels
+     * @param types the column types
+     * @param rows the number of rows
+     * @param values the values of the rows
+     * @param reads receives the columns read through {@code getObject} as "row:column", from 1, or null
+     * @return the result set
+     */
+    public static ResultSet create(String[] labels, JDBCType[] types, int rows, Values values, List<String> reads) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(TestResultSets.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.length;
+                        case "getColumnLabel":
+                        case "getColumnName":
+                            return labels[(int) args[0] - 1];
+                        case "getColumnType":
+                            return types[(int) args[0] - 1].getVendorTypeNumber();
+                        case "getColumnTypeName":
+                            return types[(int) args[0] - 1].getName();
+                        default:
+                            return null;
+                    }
+                });
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        return (ResultSet) Proxy.newProxyInstance(TestResultSets.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++row[0] < rows;
+                        case "getRow":
+                            return row[0] + 1;
+                        case "wasNull":
+                            return wasNull[0];
+                        case "getObject":
+                        case "getLong":
+                        case "getDouble":
+                        case "getString":
+                            break;
+                        default:
+                            return method.getReturnType() == boolean.class ? false : null;
+                    }
+                    int column = (int) args[0];
+                    Object value = values.get(row[0], column);
+                    wasNull[0] = value == null;
+                    switch (method.getName()) {
+                        case "getObject":
+                            if (reads != null) {
+                                reads.add((row[0] + 1) + ":" + column);
+                            }
+                            return value;
+                        case "getLong":
+                            return value == null ? 0L : ((Number) value).longValue();
+                        case "getDouble":
+                            return value == null ? 0d : ((Number) value).doubleValue();
+                        default:
+                            return value == null ? null : value.toString();
+                    }
+                });
+    }
+}
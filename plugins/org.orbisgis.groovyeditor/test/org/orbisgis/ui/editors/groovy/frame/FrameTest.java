@@ -0,0 +1,111 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.frame;
+
+import org.junit.jupiter.api.Test;
+import org.orbisgis.ui.editors.groovy.datasource.TestResultSets;
+
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameTest {
+
+    private static final String[] TYPES = {"house", "school", "shop"};
+
+    /**
+     * Result set with the columns ID, TYPE and HEIGHT, the height of every tenth row being null.
+     */
+    private static ResultSet resultSet(int rows) {
+        return TestResultSets.create(new String[]{"ID", "TYPE", "HEIGHT"},
+                new JDBCType[]{JDBCType.INTEGER, JDBCType.VARCHAR, JDBCType.DOUBLE}, rows, (row, column) -> {
+                    switch (column) {
+                        case 1:
+                            return row;
+                        case 2:
+                            return TYPES[row % 3];
+                        default:
+                            return row % 10 == 0 ? null : (double) (row % 7);
+                    }
+                }, null);
+    }
+
+    @Test
+    void readTest() throws Exception {
+        Frame frame = Frame.read(resultSet(1000));
+        assertEquals(1000, frame.size());
+        assertEquals(Arrays.asList("ID", "TYPE", "HEIGHT"), frame.getColumnNames());
+        assertTrue(frame.column("id") instanceof LongColumn);
+        assertEquals(3, ((StringColumn) frame.column("type")).getDictionary().size());
+        assertEquals("school", frame.column("type").get(4));
+        assertNull(frame.column("height").get(10));
+        assertEquals(900, frame.count("height"));
+    }
+
+    @Test
+    void filterTest() throws Exception {
+        Frame frame = Frame.read(resultSet(1000));
+        Frame shops = frame.whereEquals("type", "shop");
+        assertEquals(333, shops.size());
+        assertEquals(0, frame.whereEquals("type", "church").size());
+        Frame tall = frame.where("height", height -> height >= 5);
+        for (int row = 0; row < tall.size(); row++) {
+            assertTrue((Double) tall.column("height").get(row) >= 5);
+        }
+        assertEquals(6, frame.max("height"));
+        assertEquals(0, frame.min("height"));
+    }
+
+    @Test
+    void groupByTest() throws Exception {
+        Frame frame = Frame.read(resultSet(1000));
+        Frame counts = frame.groupBy("type").count();
+        assertEquals(3, counts.size());
+        assertEquals("house", counts.column("type").get(0));
+        assertEquals(334L, counts.column("count").get(0));
+        Frame sums = frame.groupBy("type").sum("height");
+        double total = 0;
+        for (int row = 0; row < sums.size(); row++) {
+            total += (Double) sums.column("sum_height").get(row);
+        }
+        assertEquals(frame.sum("height"), total, 1e-9);
+    }
+
+    @Test
+    void parallelTest() {
+        int size = Frame.CHUNK_SIZE * 4 + 17;
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i % 100;
+        }
+        Frame frame = new Frame(Arrays.asList(new DoubleColumn("v", values, new BitSet())));
+        Frame selected = frame.where("v", v -> v == 42);
+        assertEquals(size / 100 + (size % 100 > 42 ? 1 : 0), selected.size());
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        assertEquals(sum, frame.sum("v"), 1e-6);
+        assertEquals(100, frame.groupBy("v").count().size());
+        assertEquals(49.5, frame.mean("v"), 0.1);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.memo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskMemoCacheTest {
+
+    @TempDir
+    Path folder;
+
+    public static class Receiver {
+        private int calls = 0;
+
+        public Integer square(Integer value) {
+            calls++;
+            return value * value;
+        }
+
+        public Object identity(Object value) {
+            calls++;
+            return value;
+        }
+
+        public String big(Integer value) {
+            calls++;
+            return new String(new char[4096]).replace('\0', (char) ('a' + value));
+        }
+    }
+
+    @Test
+    void memoizeTest() throws Throwable {
+        DiskMemoCache cache = new DiskMemoCache(folder, 1024 * 1024);
+        Receiver receiver = new Receiver();
+        assertEquals(9, cache.memoize(receiver, "square", "square(Integer)", "a", 0, new Object[]{3}));
+        assertEquals(9, cache.memoize(receiver, "square", "square(Integer)", "a", 0, new Object[]{3}));
+        assertEquals(1, receiver.calls);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // Other arguments, or another source of the method
+        assertEquals(16, cache.memoize(receiver, "square", "square(Integer)", "a", 0, new Object[]{4}));
+        assertEquals(9, cache.memoize(receiver, "square", "square(Integer)", "b", 0, new Object[]{3}));
+        assertEquals(3, receiver.calls);
+
+        // Results of a previous run
+        DiskMemoCache next = new DiskMemoCache(folder, 1024 * 1024);
+        assertEquals(16, next.memoize(new Receiver(), "square", "square(Integer)", "a", 0, new Object[]{4}));
+        assertEquals(1, next.getHits());
+
+        // Arguments which cannot be serialized
+        Object value = new Object();
+        assertSame(value, cache.memoize(receiver, "identity", "identity(Object)", "a", 0, new Object[]{value}));
+        assertSame(value, cache.memoize(receiver, "identity", "identity(Object)", "a", 0, new Object[]{value}));
+        assertEquals(5, receiver.calls);
+
+        cache.clear();
+        assertEquals(9, cache.memoize(receiver, "square", "square(Integer)", "a", 0, new Object[]{3}));
+        assertEquals(6, receiver.calls);
+    }
+
+    @Test
+    void evictionTest() throws Throwable {
+        DiskMemoCache cache = new DiskMemoCache(folder, 16 * 1024);
+        Receiver receiver = new Receiver();
+        for (int i = 0; i < 10; i++) {
+            cache.memoize(receiver, "big", "big(Integer)", "a", 0, new Object[]{i});
+            // The results are evicted by modification time
+            Thread.sleep(10);
+        }
+        long size;
+        try (Stream<Path> files = Files.walk(folder)) {
+            size = files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+        assertTrue(size <= 16 * 1024);
+        // The last result is still cached
+        cache.memoize(receiver, "big", "big(Integer)", "a", 0, new Object[]{9});
+        assertEquals(10, receiver.calls);
+    }
+}
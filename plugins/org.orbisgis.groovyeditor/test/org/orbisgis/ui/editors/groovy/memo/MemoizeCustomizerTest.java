@@ -0,0 +1,59 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.memo;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoizeCustomizerTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void memoizedScriptTest() {
+        DiskMemoCache cache = DiskMemoCache.getInstance();
+        Path directory = cache.getDirectory();
+        cache.setDirectory(folder);
+        try {
+            Binding binding = new Binding();
+            binding.setVariable("calls", 0);
+            GroovyShell shell = new GroovyShell(binding, MemoizeCustomizer.configure(new CompilerConfiguration()));
+            Object result = shell.evaluate("@DiskMemoized\n" +
+                    "int square(int value) {\n" +
+                    "    calls++\n" +
+                    "    value * value\n" +
+                    "}\n" +
+                    "[square(3), square(3), square(4)]\n");
+            assertEquals(Arrays.asList(9, 9, 16), result);
+            // The second call with the same argument is read from the cache
+            assertEquals(2, binding.getVariable("calls"));
+        } finally {
+            cache.setDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.profiler;
+
+import groovy.lang.GroovyShell;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilingCustomizerTest {
+
+    @Test
+    void superAndClosureCallsTest() {
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.addCompilationCustomizers(new ProfilingCustomizer());
+        GroovyShell shell = new GroovyShell(configuration);
+        ScriptProfiler profiler = new ScriptProfiler();
+        profiler.start();
+        Object result;
+        try {
+            result = shell.evaluate("class A { def execute() { 'A' } }\n" +
+                    "class B extends A { def execute() { 'B' + super.execute() } }\n" +
+                    "def next = { it + 1 }\n" +
+                    "new B().execute() + next.call(1) + [1].iterator().next()\n");
+        } finally {
+            profiler.stop();
+        }
+        assertEquals("BA21", result);
+        assertTrue(profiler.report("", 5).contains("B.execute"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Groovy Editor (GE) is a library that brings a groovy console to the Eclipse RCP.
+ * GE is developed by CNRS http://www.cnrs.fr/.
+ *
+ * GE is part of the OrbisGIS project. GE is free software;
+ * you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation;
+ * version 3.0 of the License.
+ *
+ * GE is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details http://www.gnu.org/licenses.
+ *
+ *
+ *For more information, please consult: http://www.orbisgis.org
+ *or contact directly: info_at_orbisgis.org
+ */
+package org.orbisgis.ui.editors.groovy.runset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunSetGraphTest {
+
+    private static RunSetGraph diamond() {
+        RunSetGraph graph = new RunSetGraph();
+        graph.add("report", Arrays.asList("roads", "buildings"));
+        graph.add("roads", Collections.singletonList("load"));
+        graph.add("buildings", Collections.singletonList("load"));
+        graph.add("load", Collections.emptyList());
+        graph.add("other", Collections.emptyList());
+        return graph;
+    }
+
+    @Test
+    void sortTest() {
+        List<String> sorted = diamond().sort();
+        assertEquals(5, sorted.size());
+        assertTrue(sorted.indexOf("load") < sorted.indexOf("roads"));
+        assertTrue(sorted.indexOf("load") < sorted.indexOf("buildings"));
+        assertTrue(sorted.indexOf("roads") < sorted.indexOf("report"));
+        assertTrue(sorted.indexOf("buildings") < sorted.indexOf("report"));
+
+        RunSetGraph unknown = new RunSetGraph();
+        unknown.add("a", Collections.singletonList("b"));
+        assertThrows(IllegalArgumentException.class, unknown::sort);
+
+        RunSetGraph cycle = new RunSetGraph();
+        cycle.add("a", Collections.singletonList("b"));
+        cycle.add("b", Collections.singletonList("c"));
+        cycle.add("c", Collections.singletonList("a"));
+        assertThrows(IllegalArgumentException.class, cycle::sort);
+    }
+
+    @Test
+    void readyTest() {
+        RunSetGraph graph = diamond();
+        assertEquals(Arrays.asList("load", "other"), graph.ready(new HashSet<>(), new HashSet<>()));
+        assertEquals(Collections.singletonList("other"),
+                graph.ready(new HashSet<>(), new HashSet<>(Collections.singletonList("load"))));
+        assertEquals(Arrays.asList("roads", "buildings"), graph.ready(new HashSet<>(Collections.singletonList("load")),
+                new HashSet<>(Arrays.asList("load", "other"))));
+        assertEquals(Collections.emptyList(), graph.ready(new HashSet<>(Arrays.asList("load", "roads")),
+                new HashSet<>(Arrays.asList("load", "other", "roads", "buildings"))));
+    }
+
+    @Test
+    void downstreamTest() {
+        RunSetGraph graph = diamond();
+        assertEquals(new HashSet<>(Arrays.asList("roads", "buildings", "report")), graph.downstream("load"));
+        assertEquals(Collections.singleton("report"), graph.downstream("roads"));
+        assertTrue(graph.downstream("report").isEmpty());
+    }
+
+    @Test
+    void criticalPathTest() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("load", 10L);
+        durations.put("roads", 30L);
+        durations.put("buildings", 20L);
+        durations.put("report", 5L);
+        durations.put("other", 40L);
+        assertEquals(45L, diamond().criticalPath(durations));
+        durations.put("other", 50L);
+        assertEquals(50L, diamond().criticalPath(durations));
+    }
+}